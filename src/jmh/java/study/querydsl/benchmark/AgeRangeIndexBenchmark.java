@@ -0,0 +1,140 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.repository.cache.AgeRangeIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * member.age.goe / loe 범위 조회 비교. AgeRangeIndex(int[] + long[]) / TreeMap&lt;Integer, List&lt;Long&gt;&gt; / DB.
+ * 나이는 BenchmarkDatabase 와 같이 id % 100 이다.
+ *
+ * ./gradlew jmh -Pjmh.includes=AgeRangeIndex
+ * DB 비교는 member 를 H2 에 넣는 데 오래 걸리므로 따로 돌리는 것이 낫다. (-Pjmh.includes=AgeRangeIndex.database -Pjmh.members=1000000)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgeRangeIndexBenchmark {
+
+    @Param("10000000")
+    public int memberCount;
+
+    // 조회하는 나이 개수. 1 이면 전체의 1%, 10 이면 10% 를 읽는다.
+    @Param({"1", "10"})
+    public int rangeWidth;
+
+    public int[] ages;
+    public long[] ids;
+    public AgeRangeIndex index;
+    public AgeRangeIndex indexWithDelta;
+    public TreeMap<Integer, List<Long>> treeMap;
+
+    public int from = 30;
+    public int to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        to = from + rangeWidth - 1;
+        ages = new int[memberCount];
+        ids = new long[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            ids[i] = i + 1;
+            ages[i] = i % 100;
+        }
+        index = AgeRangeIndex.build(ages, ids);
+        treeMap = buildTreeMap();
+
+        // compact 되기 직전까지 변경이 쌓인 상태. (base 의 1/16)
+        indexWithDelta = AgeRangeIndex.build(ages, ids);
+        for (int i = 0; i < memberCount >>> 5; i++) {
+            indexWithDelta.update(ids[i * 16], (i * 7) % 100);
+        }
+    }
+
+    @Benchmark
+    public int index(Blackhole bh) {
+        return index.range(from, to, bh::consume);
+    }
+
+    @Benchmark
+    public int indexWithDelta(Blackhole bh) {
+        return indexWithDelta.range(from, to, bh::consume);
+    }
+
+    @Benchmark
+    public int treeMap(Blackhole bh) {
+        int count = 0;
+        for (List<Long> memberIds : treeMap.subMap(from, true, to, true).values()) {
+            for (Long id : memberIds) {
+                bh.consume(id.longValue());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public AgeRangeIndex buildIndex() {
+        return AgeRangeIndex.build(ages, ids);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TreeMap<Integer, List<Long>> buildTreeMap() {
+        TreeMap<Integer, List<Long>> map = new TreeMap<>();
+        for (int i = 0; i < ages.length; i++) {
+            map.computeIfAbsent(ages[i], age -> new ArrayList<>()).add(ids[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int database(Database database, Blackhole bh) {
+        List<Long> memberIds = database.queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.age.goe(from), member.age.loe(to))
+                .fetch();
+        memberIds.forEach(id -> bh.consume(id.longValue()));
+        return memberIds.size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param("10000000")
+        public int memberCount;
+
+        @Param("10")
+        public int teamCount;
+
+        public ConfigurableApplicationContext context;
+        public EntityManager em;
+        public JPAQueryFactory queryFactory;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkDatabase.start(memberCount, teamCount);
+            em = context.getBean(EntityManagerFactory.class).createEntityManager();
+            queryFactory = new JPAQueryFactory(em);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            em.close();
+            context.close();
+        }
+    }
+}
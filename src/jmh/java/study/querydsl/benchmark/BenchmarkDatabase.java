@@ -0,0 +1,54 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트. 로컬 H2 서버 대신 in-memory H2 를 쓰고 데이터를 JDBC batch 로 채운다.
+ */
+public final class BenchmarkDatabase {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {
+    }
+
+    public static ConfigurableApplicationContext start(int memberCount, int teamCount) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .run("--spring.profiles.active=bench",
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "--decorator.datasource.enabled=false",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.SQL=warn");
+        seed(context.getBean(JdbcTemplate.class), memberCount, teamCount);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int memberCount, int teamCount) {
+        List<Object[]> teams = new ArrayList<>(teamCount);
+        for (long i = 0; i < teamCount; i++) {
+            teams.add(new Object[]{i + 1, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+        List<Object[]> members = new ArrayList<>(BATCH_SIZE);
+        for (long i = 0; i < memberCount; i++) {
+            members.add(new Object[]{i + 1, "member" + i, (int) (i % 100), (i % teamCount) + 1});
+            if (members.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+                members.clear();
+            }
+        }
+        if (!members.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+        }
+    }
+}
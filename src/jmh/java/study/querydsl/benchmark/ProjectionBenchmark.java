@@ -0,0 +1,115 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.repository.support.DirectProjections;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * DTO projection 방식별 비교. 같은 쿼리를 실행하고 row -> DTO 변환 방식만 다르다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectionBenchmark {
+
+    @Param("100000")
+    public int memberCount;
+
+    @Param("10")
+    public int teamCount;
+
+    // 한 번에 변환하는 row 수
+    @Param("1000")
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+    public EntityManager em;
+    public JPAQueryFactory queryFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(memberCount, teamCount);
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> directBean() {
+        return queryFactory
+                .select(DirectProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> directFields() {
+        return queryFactory
+                .select(DirectProjections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> directConstructor() {
+        return queryFactory
+                .select(DirectProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+}
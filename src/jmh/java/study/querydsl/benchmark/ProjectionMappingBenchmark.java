@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DirectProjections;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * DB 없이 row(Object[]) -> DTO 변환 비용만 비교한다.
+ * ProjectionBenchmark 는 쿼리 실행 시간이 섞여 있어서 변환 방식의 차이가 잘 드러나지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionMappingBenchmark {
+
+    @Param("1000")
+    public int rows;
+
+    public Object[][] values;
+
+    public FactoryExpression<UserDto> bean;
+    public FactoryExpression<UserDto> fields;
+    public FactoryExpression<UserDto> constructor;
+    public FactoryExpression<UserDto> directBean;
+    public FactoryExpression<UserDto> directFields;
+    public FactoryExpression<UserDto> directConstructor;
+    public QMemberDto queryProjection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Object[]{"member" + i, i % 100};
+        }
+
+        bean = Projections.bean(UserDto.class, member.username.as("name"), member.age);
+        fields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        constructor = Projections.constructor(UserDto.class, member.username, member.age);
+        directBean = DirectProjections.bean(UserDto.class, member.username.as("name"), member.age);
+        directFields = DirectProjections.fields(UserDto.class, member.username.as("name"), member.age);
+        directConstructor = DirectProjections.constructor(UserDto.class, member.username, member.age);
+        queryProjection = new QMemberDto(member.username, member.age);
+    }
+
+    @Benchmark
+    public void bean(Blackhole bh) {
+        map(bean, bh);
+    }
+
+    @Benchmark
+    public void fields(Blackhole bh) {
+        map(fields, bh);
+    }
+
+    @Benchmark
+    public void constructor(Blackhole bh) {
+        map(constructor, bh);
+    }
+
+    @Benchmark
+    public void directBean(Blackhole bh) {
+        map(directBean, bh);
+    }
+
+    @Benchmark
+    public void directFields(Blackhole bh) {
+        map(directFields, bh);
+    }
+
+    @Benchmark
+    public void directConstructor(Blackhole bh) {
+        map(directConstructor, bh);
+    }
+
+    // @QueryProjection 은 생성자를 직접 호출하는 코드가 생성되므로 기준선으로 둔다.
+    @Benchmark
+    public void queryProjection(Blackhole bh) {
+        map(queryProjection, bh);
+    }
+
+    private void map(FactoryExpression<?> projection, Blackhole bh) {
+        for (Object[] row : values) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
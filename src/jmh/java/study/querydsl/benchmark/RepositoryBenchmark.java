@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검색 메서드별 처리량 비교. 각 호출은 실제 요청처럼 읽기 전용 트랜잭션 하나 안에서 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RepositoryBenchmark {
+
+    @Param("100000")
+    public int memberCount;
+
+    @Param("10")
+    public int teamCount;
+
+    // 뒤쪽 페이지일수록 offset 비용이 커진다.
+    @Param({"0", "100"})
+    public int page;
+
+    public ConfigurableApplicationContext context;
+    public TransactionTemplate tx;
+    public MemberJpaRepository memberJpaRepository;
+    public MemberRepository memberRepository;
+    public MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(memberCount, teamCount);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team0");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return tx.execute(status -> memberJpaRepository.search(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return tx.execute(status -> memberJpaRepository.searchByBuilder(condition));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return tx.execute(status -> memberRepository.searchPageSimple(condition, PageRequest.of(page, 20)));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return tx.execute(status -> memberRepository.searchPageComplex(condition, PageRequest.of(page, 20)));
+    }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /v1, /v2, /v3/members 를 closed-loop 로 호출해 처리량과 지연시간을 잰다.
+ * 애플리케이션을 platform thread 모드 / virtual thread 모드(querydsl.virtual-threads.enabled=true)로
+ * 각각 띄우고 같은 인자로 실행해 결과를 비교한다.
+ *
+ * args: baseUrl concurrency durationSeconds
+ */
+public class MemberSearchLoadTest {
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/v1/members?teamName=teamB&ageGoe=31&ageLoe=35",
+            "/v2/members?teamName=teamB&ageGoe=31&ageLoe=35&page=0&size=20",
+            "/v3/members?teamName=teamB&ageGoe=31&ageLoe=35&page=0&size=20");
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 10)))
+                .build();
+
+        System.out.printf("baseUrl=%s concurrency=%d duration=%ds%n", baseUrl, concurrency, duration.toSeconds());
+        System.out.printf("%-70s %10s %8s %10s %10s %10s%n", "endpoint", "req/s", "errors", "p50(ms)", "p99(ms)", "max(ms)");
+        for (String endpoint : ENDPOINTS) {
+            URI uri = URI.create(baseUrl + endpoint);
+            run(client, uri, concurrency, WARMUP);
+            Result result = run(client, uri, concurrency, duration);
+            System.out.printf("%-70s %10.1f %8d %10.1f %10.1f %10.1f%n", endpoint,
+                    result.throughput(), result.errors,
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0));
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Recorder> recorders = new ArrayList<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    recorder.add(System.nanoTime() - start);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        long[] all = new long[recorders.stream().mapToInt(r -> r.count).sum()];
+        int offset = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, all, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get(), duration);
+    }
+
+    // worker thread 하나가 전용으로 쓰고, awaitTermination 이후에만 읽는다.
+    private static class Recorder {
+        long[] samples = new long[1 << 12];
+        int count;
+
+        void add(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+    }
+
+    private record Result(long[] sortedNanos, long errors, Duration duration) {
+
+        double throughput() {
+            return sortedNanos.length / (double) duration.toSeconds();
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로컬 테스트용 복제. H2 는 복제 기능이 없으므로 primary 를 SCRIPT 로 덤프하고 replica 에 RUNSCRIPT 로 덮어쓴다.
+ * 주기(interval)가 곧 복제 지연이 되므로 maxLag 보다 길게 잡으면 fallback 동작도 확인할 수 있다.
+ * 덮어쓰는 동안에는 테이블이 잠깐 없어지므로 그 replica 를 라우팅에서 빼고, 이미 나간 커넥션이 반납된 뒤에 덮어쓴다.
+ */
+@Slf4j
+public class LocalReplicaSync implements AutoCloseable {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final JdbcTemplate primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final ReplicaHealthChecker healthChecker;
+    private final ScheduledExecutorService scheduler;
+
+    public LocalReplicaSync(DataSource primary, Map<String, HikariDataSource> replicas,
+                            ReplicaHealthChecker healthChecker, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.healthChecker = healthChecker;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-sync-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.scheduler.scheduleWithFixedDelay(this::sync, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void sync() {
+        Path script = null;
+        try {
+            script = Files.createTempFile("querydsl-replica-", ".sql");
+            primary.execute("SCRIPT DROP TO '" + script.toAbsolutePath() + "'");
+            for (Map.Entry<String, HikariDataSource> replica : replicas.entrySet()) {
+                syncReplica(replica.getKey(), replica.getValue(), script);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 예외가 scheduler 밖으로 나가면 이후 sync 가 모두 취소되므로 로그만 남긴다.
+            log.warn("local replica sync failed: {}", e.getMessage());
+        } finally {
+            if (script != null) {
+                try {
+                    Files.deleteIfExists(script);
+                } catch (IOException ignored) {
+                    // 임시 파일이므로 무시한다.
+                }
+            }
+        }
+    }
+
+    private void syncReplica(String name, HikariDataSource replica, Path script) {
+        healthChecker.suspend(name);
+        try {
+            if (!awaitIdle(replica)) {
+                log.warn("replica {} still has active connections after {}, skipping this sync", name, DRAIN_TIMEOUT);
+                return;
+            }
+            JdbcTemplate template = new JdbcTemplate(replica);
+            template.execute("DROP ALL OBJECTS");
+            template.execute("RUNSCRIPT FROM '" + script.toAbsolutePath() + "'");
+        } finally {
+            healthChecker.resume(name);
+        }
+    }
+
+    private static boolean awaitIdle(HikariDataSource replica) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (true) {
+            // 아직 한 번도 커넥션을 만들지 않은 pool 은 MXBean 이 없다.
+            HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+            if (pool == null || pool.getActiveConnections() == 0) {
+                return true;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * querydsl.replica.enabled=true 이면 DataSource 를 primary + replica 라우팅으로 바꾼다.
+ * Repository 코드는 그대로이고 @Transactional(readOnly = true) 여부로만 갈린다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSources replicaDataSources(DataSourceProperties dataSourceProperties, ReplicaProperties properties,
+                                                 Environment environment) {
+        Assert.notEmpty(properties.getReplicas(), "querydsl.replica.replicas must not be empty when replicas are enabled");
+
+        // primary 는 spring.datasource(.hikari) 설정을 그대로 쓴다.
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (ReplicaProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(replica.getName());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            replicas.put(replica.getName(), dataSource);
+        }
+        return new ReplicaDataSources(primary, replicas);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaDataSources dataSources, ReplicaProperties properties) {
+        return new ReplicaHealthChecker(dataSources.getPrimary(), dataSources.getReplicas(),
+                properties.getMaxLag(), properties.getCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaDataSources dataSources, ReplicaHealthChecker replicaHealthChecker) {
+        Map<Object, Object> targets = new HashMap<>(dataSources.getReplicas());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, dataSources.getPrimary());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaHealthChecker);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(dataSources.getPrimary());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "querydsl.replica", name = "local-sync-interval")
+    public LocalReplicaSync localReplicaSync(ReplicaDataSources dataSources, ReplicaHealthChecker replicaHealthChecker,
+                                             ReplicaProperties properties) {
+        return new LocalReplicaSync(dataSources.getPrimary(), dataSources.getReplicas(), replicaHealthChecker,
+                properties.getLocalSyncInterval());
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 라우팅 대상이 되는 실제 커넥션 pool 들. DataSource 타입의 bean 으로 등록하면 DataSource 를 꾸미는
+ * BeanPostProcessor(p6spy 등)가 감싸 버리므로 묶어서 하나의 bean 으로 둔다.
+ */
+public class ReplicaDataSources implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+
+    public ReplicaDataSources(HikariDataSource primary, Map<String, HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableMap(replicas);
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
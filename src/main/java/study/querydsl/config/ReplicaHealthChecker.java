@@ -0,0 +1,111 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * primary 의 replica_heartbeat 테이블에 주기적으로 현재 시각을 쓰고, replica 에 복제된 값과 비교해서 지연을 잰다.
+ * 복제가 끊겼거나 maxLag 보다 늦은 replica, 연결이 안 되는 replica 는 라우팅 대상에서 뺀다.
+ * 처음 확인하기 전까지는 모든 replica 가 제외되어 primary 로 간다.
+ * suspend 된 replica 는 상태와 관계없이 resume 될 때까지 제외한다. (LocalReplicaSync 가 덮어쓰는 동안 등)
+ */
+@Slf4j
+public class ReplicaHealthChecker implements AutoCloseable {
+
+    private static final String CREATE_HEARTBEAT =
+            "create table if not exists replica_heartbeat (id int primary key, beat_at timestamp not null)";
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas;
+    private final Duration maxLag;
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final Set<String> suspended = ConcurrentHashMap.newKeySet();
+    private volatile List<String> healthyReplicas = List.of();
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaHealthChecker(DataSource primary, Map<String, ? extends DataSource> replicas, Duration maxLag, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = new ConcurrentHashMap<>();
+        replicas.forEach((name, dataSource) -> this.replicas.put(name, new JdbcTemplate(dataSource)));
+        this.maxLag = maxLag;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-health-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.scheduler.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public List<String> healthyReplicas() {
+        return healthyReplicas;
+    }
+
+    public void suspend(String name) {
+        suspended.add(name);
+        publish();
+    }
+
+    public void resume(String name) {
+        suspended.remove(name);
+        publish();
+    }
+
+    void check() {
+        try {
+            primary.execute(CREATE_HEARTBEAT);
+            Timestamp now = Timestamp.from(Instant.now());
+            if (primary.update("update replica_heartbeat set beat_at = ? where id = 1", now) == 0) {
+                primary.update("insert into replica_heartbeat (id, beat_at) values (1, ?)", now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("cannot write replica heartbeat to primary: {}", e.getMessage());
+        }
+
+        replicas.forEach((name, replica) -> {
+            boolean ok;
+            try {
+                Timestamp beatAt = replica.queryForObject("select beat_at from replica_heartbeat where id = 1", Timestamp.class);
+                Duration lag = Duration.between(beatAt.toInstant(), Instant.now());
+                ok = lag.compareTo(maxLag) <= 0;
+                if (!ok) {
+                    log.debug("replica {} lag {} exceeds {}", name, lag, maxLag);
+                }
+            } catch (RuntimeException e) {
+                log.debug("replica {} check failed: {}", name, e.getMessage());
+                ok = false;
+            }
+
+            Boolean previous = healthy.put(name, ok);
+            if (previous == null || previous != ok) {
+                log.info("replica {} is {}", name, ok ? "in service" : "out of service, reads fall back to primary");
+            }
+        });
+        publish();
+    }
+
+    private synchronized void publish() {
+        healthyReplicas = healthy.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .filter(name -> !suspended.contains(name))
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
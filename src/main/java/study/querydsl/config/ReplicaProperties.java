@@ -0,0 +1,46 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.replica")
+public class ReplicaProperties {
+
+    /**
+     * true 이면 읽기 전용 트랜잭션을 replica 로 보낸다. primary 는 spring.datasource 설정을 쓴다.
+     */
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * replica 의 heartbeat 가 이보다 오래되면 지연된 것으로 보고 primary 로 보낸다.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * primary 에 heartbeat 를 쓰고 replica 의 지연을 확인하는 주기.
+     */
+    private Duration checkInterval = Duration.ofSeconds(1);
+
+    /**
+     * 로컬 테스트용. 설정하면 이 주기마다 H2 primary 의 내용을 replica 로 복사해서 비동기 복제를 흉내낸다.
+     */
+    private Duration localSyncInterval;
+
+    @Getter @Setter
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
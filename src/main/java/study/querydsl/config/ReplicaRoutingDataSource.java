@@ -0,0 +1,136 @@
+package study.querydsl.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))이면 지연이 허용 범위인 replica 중 하나로, 아니면 primary 로 보낸다.
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 동기화되지 않았으므로 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 SQL 을 실행할 때 커넥션을 고르게 한다.
+ * replica 마다 지연이 다르므로 한 요청에서 다른 thread 로 넘긴 조회(병렬 count 등)는 {@link Pin} 으로 같은 replica 를 쓴다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Pin> PIN = new ThreadLocal<>();
+
+    private final ReplicaHealthChecker healthChecker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(ReplicaHealthChecker healthChecker) {
+        this.healthChecker = healthChecker;
+    }
+
+    /**
+     * 스프링 트랜잭션 밖에서 EntityManager 를 직접 만들어 조회하는 경우(병렬 count 등) replica 로 보낸다.
+     */
+    public static <T> T readOnly(Supplier<T> work) {
+        return readOnly(null, work);
+    }
+
+    /**
+     * pin 이 있으면 그 pin 을 공유하는 조회와 같은 replica 로 보낸다.
+     */
+    public static <T> T readOnly(Pin pin, Supplier<T> work) {
+        Boolean previousReadOnly = READ_ONLY.get();
+        Pin previousPin = PIN.get();
+        READ_ONLY.set(Boolean.TRUE);
+        if (pin != null) {
+            PIN.set(pin);
+        }
+        try {
+            return work.get();
+        } finally {
+            restore(READ_ONLY, previousReadOnly);
+            restore(PIN, previousPin);
+        }
+    }
+
+    /**
+     * 현재 thread 의 조회를 다른 thread 에서 이어서 실행할 때 넘겨줄 pin. 읽기 전용이 아니면(primary 로 가면) null 이다.
+     * 읽기 전용 트랜잭션 안이면 pin 을 트랜잭션에 묶어 두므로 이 트랜잭션의 나머지 조회도 같은 replica 를 쓴다.
+     */
+    public static Pin currentPin() {
+        if (!isReadOnly()) {
+            return null;
+        }
+        Pin pin = PIN.get();
+        if (pin != null) {
+            return pin;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Pin();
+        }
+        pin = (Pin) TransactionSynchronizationManager.getResource(Pin.class);
+        if (pin == null) {
+            Pin bound = new Pin();
+            TransactionSynchronizationManager.bindResource(Pin.class, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(Pin.class);
+                }
+            });
+            pin = bound;
+        }
+        return pin;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isReadOnly()) {
+            return PRIMARY;
+        }
+
+        List<String> replicas = healthChecker.healthyReplicas();
+        if (replicas.isEmpty()) {
+            return PRIMARY;
+        }
+
+        // 트랜잭션 안에서는 처음 고른 replica 를 트랜잭션에 묶어 두고, 나중에 넘겨준 pin 도 같은 replica 를 쓰게 한다.
+        Pin pin = PIN.get() != null || TransactionSynchronizationManager.isSynchronizationActive() ? currentPin() : null;
+        if (pin == null) {
+            return nextReplica(replicas);
+        }
+        // 먼저 커넥션을 얻은 쪽이 고른 replica 를 같이 쓴다. 그 replica 가 빠졌으면 다시 고른다.
+        String pinned = pin.replica.get();
+        if (pinned != null && replicas.contains(pinned)) {
+            return pinned;
+        }
+        String chosen = nextReplica(replicas);
+        return pin.replica.compareAndSet(pinned, chosen) ? chosen : pin.replica.get();
+    }
+
+    private String nextReplica(List<String> replicas) {
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    private static boolean isReadOnly() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : READ_ONLY.get() != null;
+    }
+
+    private static <T> void restore(ThreadLocal<T> threadLocal, T previous) {
+        if (previous == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(previous);
+        }
+    }
+
+    /**
+     * 여러 thread 의 조회가 같은 replica 를 보도록 처음 고른 replica 를 공유한다.
+     */
+    public static final class Pin {
+        private final AtomicReference<String> replica = new AtomicReference<>();
+    }
+}
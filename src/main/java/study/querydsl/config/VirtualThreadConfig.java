@@ -0,0 +1,63 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * querydsl.virtual-threads.enabled=true 일 때 Tomcat 요청을 virtual thread 에서 처리한다.
+ * (Spring Boot 3.1 에는 spring.threads.virtual.enabled 가 없으므로 직접 설정한다)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor("tomcat-vt-"));
+    }
+
+    /**
+     * JDBC driver 는 synchronized 블록 안에서 socket I/O 를 하므로 그동안 virtual thread 가 carrier 에 고정(pinning)된다.
+     * 동시에 실행되는 JDBC 호출 수는 커넥션 pool 크기로 제한되므로, pool 이 carrier 수 이상이면
+     * DB 가 느려질 때 모든 carrier 가 고정되어 DB 를 쓰지 않는 요청까지 멈출 수 있다.
+     */
+    @Bean
+    public ApplicationRunner virtualThreadPoolGuard(DataSource dataSource, VirtualThreadProperties properties) {
+        return args -> {
+            int carriers = VirtualThreads.carrierParallelism();
+            int poolSize = maximumPoolSize(dataSource);
+            if (poolSize < 0 || poolSize < carriers) {
+                log.info("virtual threads enabled: carriers={}, connection pool={}", carriers, poolSize);
+                return;
+            }
+
+            String message = "Connection pool size (" + poolSize + ") >= virtual thread carriers (" + carriers + "). "
+                    + "Pinned JDBC calls can occupy every carrier. Lower spring.datasource.hikari.maximum-pool-size "
+                    + "or raise -Djdk.virtualThreadScheduler.parallelism.";
+            if (properties.isStrictPoolGuard()) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        };
+    }
+
+    static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("cannot unwrap data source", e);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * true 이면 Tomcat 요청 처리와 비동기 조회/count executor 를 virtual thread 로 실행한다. (Java 21 이상)
+     */
+    private boolean enabled = false;
+
+    /**
+     * true 이면 커넥션 pool 크기가 carrier thread 수 이상일 때 기동을 실패시킨다. false 이면 경고만 남긴다.
+     */
+    private boolean strictPoolGuard = false;
+}
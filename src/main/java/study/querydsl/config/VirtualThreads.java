@@ -0,0 +1,72 @@
+package study.querydsl.config;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * virtual thread executor 생성.
+ * 프로젝트는 Java 17 로 빌드하므로 Java 21 API 는 reflection(java.lang.reflect.Method)으로 호출한다.
+ * 빌드한 jar 를 Java 21 이상에서 실행하면 쓸 수 있다.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 작업마다 새 virtual thread 를 만드는 executor.
+     */
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21+, running on " + Runtime.version());
+        }
+        try {
+            // builder 의 실제 class 는 public 이 아니므로 method 는 public interface(Thread.Builder)에서 찾는다.
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * virtual thread 를 쓰지 않을 때는 platformThreads 크기의 daemon thread pool 을 만든다.
+     */
+    public static ExecutorService newExecutor(boolean virtual, int platformThreads, String namePrefix) {
+        if (virtual) {
+            return newPerTaskExecutor(namePrefix);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(namePrefix);
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(platformThreads, threadFactory);
+    }
+
+    /**
+     * virtual thread 를 실제로 실행하는 carrier(platform) thread 수.
+     */
+    public static int carrierParallelism() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -4,11 +4,18 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.BulkInsertResult;
+import study.querydsl.repository.MemberBulkRepository;
+
+import java.util.Iterator;
+import java.util.stream.LongStream;
 
 @Profile("local")
 @Component
@@ -22,7 +29,9 @@ public class InitMember {
         initMemberService.init();
     }
 
+    @Slf4j
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
 
         // 동시성 issue가 발생하지 않는 이유는?
@@ -33,6 +42,11 @@ public class InitMember {
         @PersistenceContext
         private EntityManager em;
 
+        private final MemberBulkRepository memberBulkRepository;
+
+        @Value("${init.member-count:100}")
+        private long memberCount;
+
         @Transactional
         public void init() {
             Team teamA = new Team("teamA");
@@ -40,11 +54,17 @@ public class InitMember {
             em.persist(teamA);
             em.persist(teamB);
 
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+            // 한 건씩 만들어서 넘기므로 member-count 를 크게 잡아도 메모리에 전부 올라가지 않는다.
+            Iterator<Member> members = LongStream.range(0, memberCount)
+                    .mapToObj(i -> {
+                        Member member = new Member("member" + i, (int) (i % 100));
+                        member.setTeam(i % 2 == 0 ? teamA : teamB);
+                        return member;
+                    })
+                    .iterator();
 
+            BulkInsertResult result = memberBulkRepository.insertAll(members);
+            log.info("init members: {}", result);
         }
 
     }
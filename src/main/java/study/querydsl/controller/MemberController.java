@@ -1,40 +1,117 @@
 package study.querydsl.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberColumns;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamAgeStats;
+import study.querydsl.repository.MemberAsyncRepository;
+import study.querydsl.repository.MemberColumnarRepository;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.cache.MemberSearchRequestKey;
+import study.querydsl.repository.cache.SingleFlight;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.repository.support.KeysetPagination;
+import study.querydsl.service.MemberExportProperties;
+import study.querydsl.service.MemberExportService;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberExportProperties memberExportProperties;
+    private final MemberAsyncRepository memberAsyncRepository;
+    private final MemberColumnarRepository memberColumnarRepository;
+    // 같은 조건으로 동시에 들어온 요청은 먼저 온 요청의 조회 결과를 같이 받는다.
+    private final SingleFlight<MemberSearchRequestKey, List<MemberTeamDto>> memberSearchFlight;
+    private final SingleFlight<MemberSearchRequestKey, Page<MemberTeamDto>> memberPageFlight;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        return memberSearchFlight.execute(MemberSearchRequestKey.of("v1", condition),
+                () -> memberJpaRepository.search(condition));
+    }
+
+    // /v1/members 와 같은 검색을 List 로 모으지 않고 ndjson / csv 로 흘려보낸다.
+    // 다른 비동기 요청은 기본 timeout 을 그대로 쓰고, export 만 querydsl.export.timeout 으로 길게 준다.
+    @GetMapping("/v1/members/export")
+    public WebAsyncTask<Void> exportMembersV1(MemberSearchCondition condition,
+                                              @RequestParam(defaultValue = "ndjson") String format,
+                                              HttpServletResponse response) {
+        MemberExportService.Format exportFormat = MemberExportService.Format.from(format);
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + exportFormat.getExtension());
+        return new WebAsyncTask<>(memberExportProperties.getTimeout().toMillis(), () -> {
+            memberExportService.export(condition, exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
+    // 통계/리포트용. /v1/members 와 같은 검색 결과를 row 객체 대신 컬럼별 배열로 돌려준다.
+    @GetMapping("/v1/members/columns")
+    public MemberColumns searchMemberColumnsV1(MemberSearchCondition condition) {
+        return memberColumnarRepository.searchColumns(condition);
+    }
+
+    @GetMapping("/v1/members/team-age-stats")
+    public TeamAgeStats teamAgeStatsV1() {
+        return memberColumnarRepository.teamAgeStats();
     }
 
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+        return memberPageFlight.execute(MemberSearchRequestKey.of("v2", condition, pageable),
+                () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+        return memberPageFlight.execute(MemberSearchRequestKey.of("v3", condition, pageable),
+                () -> memberRepository.searchPageComplex(condition, pageable));
     }
 
+    // 조회하는 동안 Tomcat thread 를 반납한다. (servlet async)
+    @GetMapping("/v1/members/async")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1Async(MemberSearchCondition condition) {
+        return memberAsyncRepository.search(condition);
+    }
 
+    @GetMapping("/v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition, Pageable pageable) {
+        return memberAsyncRepository.searchPageComplex(condition, pageable);
+    }
 
+    @GetMapping("/v4/members")
+    public CursorPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchByCursor(condition, cursor, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
 
+    // 잘못된 cursor / page size 는 client 의 잘못이므로 400 으로 응답한다. 본문은 다른 오류와 같은 기본 error 응답을 쓴다.
+    @ExceptionHandler({KeysetCursor.InvalidCursorException.class, KeysetPagination.InvalidPageSizeException.class})
+    public void badRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
 }
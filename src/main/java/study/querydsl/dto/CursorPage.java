@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * keyset(seek) 방식 페이지 결과.
+ * offset 대신 마지막 row의 key를 cursor로 넘겨주므로 몇 번째 페이지든 비용이 동일하다.
+ */
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/**
+ * MemberTeamDto 목록을 컬럼별 배열로 담은 결과. i 번째 row 는 각 배열의 i 번째 값이다.
+ * teamId 가 없으면 0, teamNameCodes 가 -1 이면 team 이 없는 것이다.
+ * 팀 이름은 teamNames[teamNameCodes[i]] 로 찾는다.
+ */
+@Getter
+public class MemberColumns {
+
+    private final int size;
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final long[] teamIds;
+    private final int[] teamNameCodes;
+    private final String[] teamNames;
+
+    public MemberColumns(long[] memberIds, String[] usernames, int[] ages, long[] teamIds,
+                         int[] teamNameCodes, String[] teamNames) {
+        this.size = memberIds.length;
+        this.memberIds = memberIds;
+        this.usernames = usernames;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.teamNameCodes = teamNameCodes;
+        this.teamNames = teamNames;
+    }
+
+    public String teamNameAt(int row) {
+        int code = teamNameCodes[row];
+        return code < 0 ? null : teamNames[code];
+    }
+}
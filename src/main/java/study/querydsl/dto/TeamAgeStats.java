@@ -0,0 +1,28 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/**
+ * 팀별 나이 통계(count, sum, avg, max, min)를 컬럼별 배열로 담은 결과. i 번째 팀의 이름은 teamNames[i] 이다.
+ */
+@Getter
+public class TeamAgeStats {
+
+    private final int size;
+    private final String[] teamNames;
+    private final long[] counts;
+    private final long[] sums;
+    private final double[] averages;
+    private final int[] maxAges;
+    private final int[] minAges;
+
+    public TeamAgeStats(String[] teamNames, long[] counts, long[] sums, double[] averages, int[] maxAges, int[] minAges) {
+        this.size = teamNames.length;
+        this.teamNames = teamNames;
+        this.counts = counts;
+        this.sums = sums;
+        this.averages = averages;
+        this.maxAges = maxAges;
+        this.minAges = minAges;
+    }
+}
@@ -4,13 +4,24 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+// MemberSearchCondition 필터별 인덱스. 뒤쪽 컬럼까지 포함해서 MemberTeamDto 의 member 쪽 컬럼을 인덱스만으로 읽는다. (member_id 는 PK 라 포함된다)
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username, age, team_id"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age, username"),
+        @Index(name = "idx_member_age", columnList = "age, team_id, username")
+})
+@NamedEntityGraph(name = Member.WITH_TEAM, attributeNodes = @NamedAttributeNode("team"))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+    public static final String WITH_TEAM = "Member.withTeam";
+
+    // 대량 insert 시 sequence 호출을 줄이기 위해 id 를 jdbc batch_size 만큼 한 번에 할당받는다.
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,19 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkInsertResult {
+
+    private final long rows;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public BulkInsertResult(long rows, long elapsedMillis) {
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+}
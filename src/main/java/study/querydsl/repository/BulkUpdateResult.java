@@ -0,0 +1,21 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkUpdateResult {
+
+    private final long rows;
+    private final int chunks;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public BulkUpdateResult(long rows, int chunks, long elapsedMillis) {
+        this.rows = rows;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.index-advisor")
+public class IndexAdvisorProperties {
+
+    /**
+     * true 이면 기동 시 member 검색 shape 마다 EXPLAIN 을 실행해서 table scan 을 경고한다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * true 이면 table scan 이 있을 때 기동을 실패시킨다. (CI 에서 인덱스 누락을 잡는 용도)
+     */
+    private boolean failOnScan = false;
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.AsyncQueryExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MemberRepositoryCustom 검색의 비동기 버전.
+ * 호출한 thread 는 바로 반환되고 조회는 AsyncQueryExecutor 에서 DB permit 을 얻은 뒤 실행된다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberAsyncRepository {
+
+    private final MemberRepository memberRepository;
+    private final AsyncQueryExecutor asyncQueryExecutor;
+
+    public CompletableFuture<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        return asyncQueryExecutor.supply(() -> memberRepository.search(condition));
+    }
+
+    public CompletableFuture<Page<MemberTeamDto>> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return asyncQueryExecutor.supply(() -> memberRepository.searchPageComplex(condition, pageable));
+    }
+}
@@ -0,0 +1,245 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.BulkProgress;
+import study.querydsl.repository.support.PartitionedBulkExecutor;
+import study.querydsl.repository.support.PartitionedBulkExecutor.ChunkStatement;
+import study.querydsl.repository.support.PartitionedBulkProperties;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 대량 적재/변경용 저장소.
+ * id 는 sequence 에서 allocationSize 만큼 한 번에 받아오고(pooled), insert 는 hibernate.jdbc.batch_size 단위로
+ * JDBC batch 로 나간다. chunk 마다 flush + clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+ */
+@Repository
+public class MemberBulkRepository {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate requiresNewTx;
+    private final PartitionedBulkExecutor bulkExecutor;
+
+    public MemberBulkRepository(EntityManager em, PlatformTransactionManager transactionManager,
+                                PartitionedBulkExecutor bulkExecutor) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.bulkExecutor = bulkExecutor;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * members 는 한 건씩 만들어서 넘겨주는 Iterator 를 쓰면 전체를 메모리에 올리지 않아도 된다.
+     * 같은 Team 을 수백만 건이 참조하는 경우 new Member(username, age, team) 은 team.getMembers() 에 계속 쌓이므로
+     * new Member(username, age) 후 setTeam(team) 으로 연관관계의 주인 쪽만 설정한다.
+     */
+    @Transactional
+    public BulkInsertResult insertAll(Iterator<Member> members, int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero!");
+
+        long start = System.nanoTime();
+        long rows = 0;
+        while (members.hasNext()) {
+            em.persist(members.next());
+            if (++rows % chunkSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        return new BulkInsertResult(rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Transactional
+    public BulkInsertResult insertAll(Iterator<Member> members) {
+        return insertAll(members, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * bulk update 후 em.clear() 대신 영향받은 Member 만 분리(또는 refresh)한다.
+     * 영속성 컨텍스트의 다른 엔티티(Team 등)와 아직 반영 안 된 변경은 그대로 유지된다.
+     * <pre>
+     * memberBulkRepository.update(member.age.lt(28), update -> update.set(member.username, "비회원"), StaleMemberPolicy.DETACH);
+     * </pre>
+     */
+    @Transactional
+    public long update(Predicate where, Consumer<JPAUpdateClause> set, StaleMemberPolicy policy) {
+        Assert.notNull(where, "Predicate must not be null!");
+
+        // 쓰기 지연된 변경을 먼저 내보내야 bulk update 결과를 덮어쓰지 않는다.
+        em.flush();
+        List<Member> stale = managedMembersMatching(where);
+
+        JPAUpdateClause update = queryFactory.update(member).where(where);
+        set.accept(update);
+        long rows = update.execute();
+
+        if (policy == StaleMemberPolicy.REFRESH) {
+            stale.forEach(em::refresh);
+        } else {
+            stale.forEach(em::detach);
+        }
+        return rows;
+    }
+
+    /**
+     * bulk delete 후 지워진 Member 를 분리하고, 초기화된 team.members 컬렉션에서도 빼 준다.
+     */
+    @Transactional
+    public long delete(Predicate where) {
+        Assert.notNull(where, "Predicate must not be null!");
+
+        em.flush();
+        List<Member> stale = managedMembersMatching(where);
+
+        long rows = queryFactory.delete(member).where(where).execute();
+
+        stale.forEach(em::detach);
+        removeFromTeamMembers(stale);
+        return rows;
+    }
+
+    /**
+     * 범위가 큰 update 를 member_id 구간(chunkSize)으로 나눠 구간마다 새 트랜잭션으로 실행한다.
+     * 한 트랜잭션이 테이블 전체의 row lock 을 오래 잡고 있지 않게 하려는 것이므로,
+     * 각 구간은 바로 커밋되고 중간에 실패하면 앞 구간의 변경은 남는다.
+     * 바깥 트랜잭션이 잡고 있는 lock 과 교착되지 않도록 트랜잭션 밖에서 호출해야 한다.
+     */
+    public BulkUpdateResult updateInChunks(Predicate where, Consumer<JPAUpdateClause> set, int chunkSize) {
+        return executeInChunks("member.update", where, chunkSize, 1, updateStatement(where, set), null);
+    }
+
+    public BulkUpdateResult deleteInChunks(Predicate where, int chunkSize) {
+        return executeInChunks("member.delete", where, chunkSize, 1, deleteStatement(where), null);
+    }
+
+    /**
+     * updateInChunks 와 같지만 chunk 들을 querydsl.bulk.parallelism 개의 worker 가 동시에 실행한다.
+     * <pre>
+     * memberBulkRepository.updateInParallel(member.age.goe(0), update -> update.set(member.age, member.age.add(1)),
+     *         progress -> log.info("{}%", progress.getPercent()));
+     * </pre>
+     */
+    public BulkUpdateResult updateInParallel(Predicate where, Consumer<JPAUpdateClause> set, Consumer<BulkProgress> listener) {
+        PartitionedBulkProperties properties = bulkExecutor.getProperties();
+        return executeInChunks("member.update", where, properties.getChunkSize(), properties.getParallelism(),
+                updateStatement(where, set), listener);
+    }
+
+    public BulkUpdateResult updateInParallel(Predicate where, Consumer<JPAUpdateClause> set) {
+        return updateInParallel(where, set, null);
+    }
+
+    public BulkUpdateResult deleteInParallel(Predicate where) {
+        PartitionedBulkProperties properties = bulkExecutor.getProperties();
+        return executeInChunks("member.delete", where, properties.getChunkSize(), properties.getParallelism(),
+                deleteStatement(where), null);
+    }
+
+    private ChunkStatement updateStatement(Predicate where, Consumer<JPAUpdateClause> set) {
+        return (fromId, toId) -> {
+            JPAUpdateClause update = queryFactory.update(member).where(where, member.id.between(fromId, toId));
+            set.accept(update);
+            return update.execute();
+        };
+    }
+
+    private ChunkStatement deleteStatement(Predicate where) {
+        return (fromId, toId) -> queryFactory.delete(member).where(where, member.id.between(fromId, toId)).execute();
+    }
+
+    private BulkUpdateResult executeInChunks(String name, Predicate where, int chunkSize, int parallelism,
+                                             ChunkStatement statement, Consumer<BulkProgress> listener) {
+        Assert.notNull(where, "Predicate must not be null!");
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Chunked bulk statements run in their own transactions and must not be called inside a transaction");
+
+        long start = System.nanoTime();
+        Tuple range = requiresNewTx.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(where)
+                .fetchOne());
+        Long minId = range == null ? null : range.get(member.id.min());
+        Long maxId = range == null ? null : range.get(member.id.max());
+        if (minId == null) {
+            return new BulkUpdateResult(0, 0, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        BulkProgress progress = bulkExecutor.execute(name, minId, maxId, chunkSize, parallelism, statement, listener);
+        return new BulkUpdateResult(progress.getRows(), progress.getTotalChunks(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 영속성 컨텍스트가 관리 중인 Member 중 조건에 해당하는 것만 찾는다.
+     * 관리 중인 Member 의 id 로 범위를 좁혀서 조회하므로 bulk 대상이 많아도 비용은 영속성 컨텍스트 크기에 비례한다.
+     */
+    private List<Member> managedMembersMatching(Predicate where) {
+        Map<Long, Member> managed = managedEntities(Member.class).stream()
+                .collect(Collectors.toMap(Member::getId, m -> m, (a, b) -> a));
+        if (managed.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> affectedIds = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(where, member.id.in(managed.keySet()))
+                .fetch();
+        return affectedIds.stream().map(managed::get).collect(Collectors.toList());
+    }
+
+    private void removeFromTeamMembers(List<Member> deleted) {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        Set<Member> removed = Set.copyOf(deleted);
+        for (Team team : managedEntities(Team.class)) {
+            if (Hibernate.isInitialized(team.getMembers())) {
+                team.getMembers().removeIf(removed::contains);
+            }
+        }
+    }
+
+    private <T> List<T> managedEntities(Class<T> type) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<T> result = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (type.isInstance(entry.getKey())) {
+                result.add(type.cast(entry.getKey()));
+            }
+        }
+        return result;
+    }
+
+}
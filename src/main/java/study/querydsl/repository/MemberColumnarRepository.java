@@ -0,0 +1,113 @@
+package study.querydsl.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamAgeStats;
+import study.querydsl.repository.support.Columns.DictionaryColumn;
+import study.querydsl.repository.support.Columns.DoubleColumn;
+import study.querydsl.repository.support.Columns.IntColumn;
+import study.querydsl.repository.support.Columns.LongColumn;
+import study.querydsl.repository.support.QueryMetrics;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 통계/리포트용 조회. JPA 를 거치면 row 마다 Tuple(Object[])과 boxing 된 숫자가 만들어지므로
+ * JDBC ResultSet 을 바로 읽어서 컬럼별 primitive 배열에 담는다.
+ * 엔티티를 만들지 않으므로 영속성 컨텍스트와는 무관하고, 결과는 읽기 전용 스냅샷이다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberColumnarRepository {
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private static final String SEARCH_SQL =
+            "select m.member_id, m.username, m.age, t.team_id, t.name" +
+            " from member m left join team t on t.team_id = m.team_id";
+
+    private static final String TEAM_AGE_STATS_SQL =
+            "select t.name, count(m.member_id), sum(m.age), avg(cast(m.age as double)), max(m.age), min(m.age)" +
+            " from member m join team t on t.team_id = m.team_id" +
+            " group by t.name" +
+            " order by t.name";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final QueryMetrics queryMetrics;
+
+    public MemberColumnarRepository(DataSource dataSource, QueryMetrics queryMetrics) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        // 결과 전체를 driver 가 한 번에 받아오지 않도록 fetch size 단위로 읽는다.
+        template.setFetchSize(DEFAULT_FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.queryMetrics = queryMetrics;
+    }
+
+    public MemberColumns searchColumns(MemberSearchCondition condition) {
+        List<String> where = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (StringUtils.hasText(condition.getUsername())) {
+            where.add("m.username = :username");
+            params.addValue("username", condition.getUsername());
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            where.add("t.name = :teamName");
+            params.addValue("teamName", condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            where.add("m.age >= :ageGoe");
+            params.addValue("ageGoe", condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            where.add("m.age <= :ageLoe");
+            params.addValue("ageLoe", condition.getAgeLoe());
+        }
+        String sql = SEARCH_SQL + (where.isEmpty() ? "" : " where " + String.join(" and ", where)) + " order by m.member_id";
+
+        return queryMetrics.record("member.searchColumns", QueryMetrics.CONTENT, () -> jdbcTemplate.query(sql, params, rs -> {
+            LongColumn memberIds = new LongColumn();
+            List<String> usernames = new ArrayList<>();
+            IntColumn ages = new IntColumn();
+            LongColumn teamIds = new LongColumn();
+            DictionaryColumn teamNames = new DictionaryColumn();
+            while (rs.next()) {
+                memberIds.add(rs.getLong(1));
+                usernames.add(rs.getString(2));
+                ages.add(rs.getInt(3));
+                teamIds.add(rs.getLong(4));
+                teamNames.add(rs.getString(5));
+            }
+            return new MemberColumns(memberIds.toArray(), usernames.toArray(new String[0]), ages.toArray(),
+                    teamIds.toArray(), teamNames.codes(), teamNames.dictionary());
+        }), MemberColumns::getSize, () -> sql + " " + params.getValues());
+    }
+
+    public TeamAgeStats teamAgeStats() {
+        return queryMetrics.record("member.teamAgeStats", QueryMetrics.CONTENT, () -> jdbcTemplate.getJdbcTemplate().query(TEAM_AGE_STATS_SQL, rs -> {
+            List<String> teamNames = new ArrayList<>();
+            LongColumn counts = new LongColumn();
+            LongColumn sums = new LongColumn();
+            DoubleColumn averages = new DoubleColumn();
+            IntColumn maxAges = new IntColumn();
+            IntColumn minAges = new IntColumn();
+            while (rs.next()) {
+                teamNames.add(rs.getString(1));
+                counts.add(rs.getLong(2));
+                sums.add(rs.getLong(3));
+                averages.add(rs.getDouble(4));
+                maxAges.add(rs.getInt(5));
+                minAges.add(rs.getInt(6));
+            }
+            return new TeamAgeStats(teamNames.toArray(new String[0]), counts.toArray(), sums.toArray(),
+                    averages.toArray(), maxAges.toArray(), minAges.toArray());
+        }), TeamAgeStats::getSize, () -> TEAM_AGE_STATS_SQL);
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.repository;
+
+/**
+ * Member 엔티티 조회 시 함께 가져올 연관관계.
+ * to-one 만 fetch join 하므로 페이징과 같이 써도 row 수가 늘어나지 않는다.
+ * 컬렉션(Team.members)은 hibernate.default_batch_fetch_size 로 in 쿼리 한 번에 묶어서 가져온다.
+ */
+public enum MemberFetchPlan {
+
+    /** 연관관계는 LAZY 그대로 둔다. */
+    NONE,
+
+    /** member.team 을 fetch join 한다. */
+    TEAM
+}
@@ -1,21 +1,31 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.JpqlQueryCache;
+import study.querydsl.repository.support.QueryMetrics;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
@@ -25,13 +35,35 @@ import static study.querydsl.entity.QTeam.team;
 //@RequiredArgsConstructor
 public class MemberJpaRepository {
 
+    // search() 조건 조합(shape) bit
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    // search() 가 만드는 조건 조합 수. 0(조건 없음)을 뺀 1~15 가 인덱스를 타야 하는 shape 이다.
+    public static final int SEARCH_SHAPES = 1 << 4;
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final JpqlQueryCache<Integer> searchQueryCache = new JpqlQueryCache<>();
+    private final QueryMetrics queryMetrics;
+    private final TeamDictionary teamDictionary;
+    private final MemberQueryRepository memberQueryRepository;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, QueryMetrics queryMetrics,
+                               TeamDictionary teamDictionary, MemberQueryRepository memberQueryRepository) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
 //        this.queryFactory = queryFactory;
+        this.queryMetrics = queryMetrics;
+        this.teamDictionary = teamDictionary;
+        this.memberQueryRepository = memberQueryRepository;
+        queryMetrics.bindCache("member.search", searchQueryCache);
     }
 
     public void save(Member member) {
@@ -49,9 +81,8 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findAll_querydsl() {
-        return queryFactory
-                .selectFrom(member)
-                .fetch();
+        return queryMetrics.fetch("member.findAll", queryFactory
+                .selectFrom(member));
                 
     }
 
@@ -62,12 +93,12 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByUsername_querydsl(String username) {
-        return queryFactory
+        return queryMetrics.fetch("member.findByUsername", queryFactory
                 .selectFrom(member)
-                .where(member.username.eq(username))
-                .fetch();
+                .where(member.username.eq(username)));
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
         BooleanBuilder builder = new BooleanBuilder();
 
@@ -87,7 +118,7 @@ public class MemberJpaRepository {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
+        return queryMetrics.fetch("member.searchByBuilder", queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -97,11 +128,36 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(builder));
     }
 
+    // 조건 4개가 있고 없고의 조합은 16가지뿐이므로, 조합별로 JPQL 을 한 번만 만들고 값만 바인딩한다.
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (memberQueryRepository.isSearchIndexReady()) {
+            return memberQueryRepository.search(condition);
+        }
+        if (teamDictionary.isEnabled()) {
+            return memberQueryRepository.searchWithTeamDictionary(condition);
+        }
+
+        int shape = searchShape(condition);
+        JpqlQueryCache.CompiledQuery<MemberTeamDto> query = searchQueryCache.get(shape, em, () -> searchTemplate(shape));
+
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if ((shape & USERNAME) != 0) params.put(usernameParam, condition.getUsername());
+        if ((shape & TEAM_NAME) != 0) params.put(teamNameParam, condition.getTeamName());
+        if ((shape & AGE_GOE) != 0) params.put(ageGoeParam, condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0) params.put(ageLoeParam, condition.getAgeLoe());
+        return queryMetrics.record("member.search", QueryMetrics.CONTENT, () -> query.fetch(em, params),
+                List::size, () -> QueryMetrics.describe(query.getJpql(), params));
+    }
+
+    /**
+     * 결과를 한 번에 List 로 만들지 않고 JDBC fetch size 단위로 읽어온다.
+     * 반환된 Stream 은 트랜잭션 안에서 소비하고 반드시 close 해야 한다.
+     */
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -117,20 +173,79 @@ public class MemberJpaRepository {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .fetch();
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
+    }
+
+    public JpqlQueryCache<Integer> getSearchQueryCache() {
+        return searchQueryCache;
+    }
+
+    private int searchShape(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) shape |= USERNAME;
+        if (hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        return shape;
+    }
+
+    private JPAQuery<MemberTeamDto> searchTemplate(int shape) {
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member);
+        // team.name 조건이 있으면 team 이 없는 member 는 어차피 빠지므로 inner join 으로 바꾼다.
+        // outer join 은 조인 순서가 member -> team 으로 고정되어 idx_team_name 으로 시작할 수 없다.
+        if ((shape & TEAM_NAME) != 0) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        return query
+                .where((shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                        (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                        (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+                        (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null
+                );
     }
 
     // where 절 파라미터 사용시 다양하게 조립하여 재사용할 수 있다. -> component를 하나로 묶어서 하나의 component 등으로
     // Entity 로 반환한다고 했을 때 함수의 재사용성 측면(조립)
+    @Transactional(readOnly = true)
     public List<Member> searchMember(MemberSearchCondition condition) {
-        return queryFactory
+        return queryMetrics.fetch("member.searchMember", queryFactory
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                )
-                .fetch();
+                ));
+    }
+
+    // 연관된 team 을 호출하는 쪽이 있다면 TEAM 으로 조회해서 team 마다 쿼리가 나가지 않게 한다. (N+1)
+    @Transactional(readOnly = true)
+    public List<Member> searchMember(MemberSearchCondition condition, MemberFetchPlan fetchPlan) {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member);
+        if (fetchPlan == MemberFetchPlan.TEAM) {
+            query.leftJoin(member.team, team).fetchJoin();
+        } else {
+            query.leftJoin(member.team, team);
+        }
+
+        return queryMetrics.fetch("member.searchMember", query
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                ));
     }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
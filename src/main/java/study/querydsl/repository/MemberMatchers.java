@@ -0,0 +1,81 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.PredicateCompiler;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member 검색 조건을 DB 대신 메모리에 있는 Member / MemberTeamDto 에 적용한다.
+ * 리포지토리의 usernameEq / teamNameEq / ageGoe / ageLoe 와 같은 식을 만들고 PredicateCompiler 로 컴파일한다.
+ * <pre>
+ * java.util.function.Predicate&lt;MemberTeamDto&gt; matcher = MemberMatchers.MEMBER_TEAM_DTO.compile(MemberMatchers.condition(condition));
+ * </pre>
+ */
+public final class MemberMatchers {
+
+    /**
+     * QuerydslPredicateExecutor&lt;Member&gt; 에 넘기는 것과 같은 Predicate 를 Member 엔티티에 적용한다.
+     * team 은 member.team.* 와 join alias(team.*) 두 경로 모두 지원한다. team 이 LAZY 로딩 전이면 조회가 발생한다.
+     */
+    public static final PredicateCompiler<Member> MEMBER = PredicateCompiler.<Member>builder()
+            .path(member.id, Member::getId)
+            .path(member.username, Member::getUsername)
+            .path(member.age, Member::getAge)
+            .path(member.team, Member::getTeam)
+            .path(member.team.id, m -> m.getTeam() == null ? null : m.getTeam().getId())
+            .path(member.team.name, m -> m.getTeam() == null ? null : m.getTeam().getName())
+            .path(team.id, m -> m.getTeam() == null ? null : m.getTeam().getId())
+            .path(team.name, m -> m.getTeam() == null ? null : m.getTeam().getName())
+            .build();
+
+    /**
+     * search() 결과(MemberTeamDto) 에 같은 조건을 적용한다.
+     */
+    public static final PredicateCompiler<MemberTeamDto> MEMBER_TEAM_DTO = PredicateCompiler.<MemberTeamDto>builder()
+            .path(member.id, MemberTeamDto::getMemberId)
+            .path(member.username, MemberTeamDto::getUsername)
+            .path(member.age, MemberTeamDto::getAge)
+            .path(member.team.id, MemberTeamDto::getTeamId)
+            .path(member.team.name, MemberTeamDto::getTeamName)
+            .path(team.id, MemberTeamDto::getTeamId)
+            .path(team.name, MemberTeamDto::getTeamName)
+            .build();
+
+    private MemberMatchers() {
+    }
+
+    /**
+     * MemberSearchCondition 을 리포지토리 검색과 같은 Predicate 로 만든다. 조건이 없으면 항상 참인 빈 BooleanBuilder.
+     */
+    public static BooleanBuilder condition(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+        return builder;
+    }
+
+    public static java.util.function.Predicate<MemberTeamDto> dtoMatcher(MemberSearchCondition condition) {
+        return MEMBER_TEAM_DTO.compile(condition(condition).getValue());
+    }
+
+    public static java.util.function.Predicate<Member> memberMatcher(MemberSearchCondition condition) {
+        return MEMBER.compile(condition(condition).getValue());
+    }
+}
@@ -1,13 +1,19 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.cache.MemberSearchIndex;
+import study.querydsl.repository.support.QueryMetrics;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.springframework.util.StringUtils.hasText;
@@ -17,15 +23,32 @@ import static study.querydsl.entity.QTeam.team;
 // 엄청나게 복잡한 동적 쿼리나, 특정한 기능에 맞춰진 조회 기능, 특정 api에 특화된 기능
 // 특화되고 복잡하면 따로 만들고 injection 받아서 써도 된다.
 @Repository
+@Transactional(readOnly = true)
 public class MemberQueryRepository {
 
     private final JPAQueryFactory queryFactory;
+    private final TeamDictionary teamDictionary;
+    private final QueryMetrics queryMetrics;
+    private final MemberSearchIndex searchIndex;
 
-    public MemberQueryRepository(EntityManager em) {
+    public MemberQueryRepository(EntityManager em, TeamDictionary teamDictionary, QueryMetrics queryMetrics,
+                                 MemberSearchIndex searchIndex) {
         this.queryFactory = new JPAQueryFactory(em);
+        this.teamDictionary = teamDictionary;
+        this.queryMetrics = queryMetrics;
+        this.searchIndex = searchIndex;
     }
 
+    // 메모리 인덱스가 준비되어 있으면 인덱스에서, 아니면(꺼져 있거나 bulk 변경 후 다시 읽는 중) DB 에서 조회한다.
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return searchIndex.search(condition).orElseGet(() -> searchFromDatabase(condition));
+    }
+
+    public boolean isSearchIndexReady() {
+        return searchIndex.isEnabled() && searchIndex.isReady();
+    }
+
+    public List<MemberTeamDto> searchFromDatabase(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -44,6 +67,39 @@ public class MemberQueryRepository {
                 .fetch();
     }
 
+    // team join 없이 member 만 조회하고 teamName 은 TeamDictionary 에서 채운다.
+    // member.team.id 는 FK 컬럼이므로 join 이 생기지 않는다.
+    public List<MemberTeamDto> searchWithTeamDictionary(MemberSearchCondition condition) {
+        List<Long> teamIds = null;
+        if (hasText(condition.getTeamName())) {
+            teamIds = teamDictionary.idsOf(condition.getTeamName());
+            if (teamIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Tuple> rows = queryMetrics.fetch("member.searchWithTeamDictionary", queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(usernameEq(condition.getUsername()),
+                        teamIds == null ? null : member.team.id.in(teamIds),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                ));
+
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long teamId = row.get(member.team.id);
+            result.add(new MemberTeamDto(
+                    row.get(member.id),
+                    row.get(member.username),
+                    row.get(member.age),
+                    teamId,
+                    teamDictionary.nameOf(teamId)));
+        }
+        return result;
+    }
+
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
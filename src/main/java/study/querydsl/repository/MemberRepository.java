@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import study.querydsl.entity.Member;
@@ -9,4 +10,7 @@ import java.util.List;
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, QuerydslPredicateExecutor<Member> {
 
     List<Member> findByUsername(String username);
+
+    @EntityGraph(Member.WITH_TEAM)
+    List<Member> findWithTeamByUsername(String username);
 }
@@ -11,10 +11,17 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.cache.CountCache;
+import study.querydsl.repository.cache.MemberSearchKey;
+import study.querydsl.repository.support.CountQueries;
+import study.querydsl.repository.support.KeysetPagination;
+import study.querydsl.repository.support.QueryMetrics;
 
 import java.util.List;
 
@@ -23,6 +30,8 @@ import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+// 조회 전용이므로 replica 라우팅이 켜져 있으면 replica 로 간다. (쓰기 트랜잭션 안에서 호출되면 그 트랜잭션을 따라 primary)
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     // QuerdslRepositorySupport interface 관련 -> entityManager 자동 주입
@@ -30,15 +39,30 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 //        super(Member.class);
 //    }
 
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final CountCache<MemberSearchKey> countCache;
+    private final QueryMetrics queryMetrics;
+    private final TeamDictionary teamDictionary;
+    private final MemberQueryRepository memberQueryRepository;
 //
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, CountCache<MemberSearchKey> countCache, QueryMetrics queryMetrics,
+                                TeamDictionary teamDictionary, MemberQueryRepository memberQueryRepository) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.queryMetrics = queryMetrics;
+        this.teamDictionary = teamDictionary;
+        this.memberQueryRepository = memberQueryRepository;
     }
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        if (teamDictionary.isEnabled()) {
+            return memberQueryRepository.searchWithTeamDictionary(condition);
+        }
+
+        JPAQuery<MemberTeamDto> query = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -52,8 +76,8 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                );
+        return queryMetrics.fetch("member.search", query);
 
 //        QuerydslRepositorySupport
 //        List<MemberTeamDto> result = from(member)
@@ -74,7 +98,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
+        JPAQuery<MemberTeamDto> query = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -90,8 +114,10 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageLoe(condition.getAgeLoe())
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
+                .limit(pageable.getPageSize());
+        // fetchResults() 는 content 와 count 를 함께 실행한다.
+        QueryResults<MemberTeamDto> results = queryMetrics.record("member.searchPageSimple", QueryMetrics.CONTENT,
+                query::fetchResults, r -> r.getResults().size(), () -> QueryMetrics.describe(query));
 
         List<MemberTeamDto> content = results.getResults();
         long total = results.getTotal();
@@ -131,7 +157,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
 
-        List<MemberTeamDto> content = queryFactory
+        JPAQuery<MemberTeamDto> contentQuery = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -145,32 +171,50 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
+                );
+
+        // count 쿼리는 content 쿼리에서 만들어낸다.
+        // teamName 조건이 없으면 건수에 영향이 없는 team left join 은 빠진다.
+        JPAQuery<?> countQuery = CountQueries.derive(em, contentQuery);
+
+        List<MemberTeamDto> content = queryMetrics.fetch("member.searchPageComplex", contentQuery
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize()));
 
-        // count query를 최적화하고 싶다면
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+//        return new PageImpl<>(content, pageable, total);
+        // 같은 조건의 count 는 짧은 시간 동안 재사용한다. (member/team 쓰기 시 무효화)
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCache.count(key,
+                () -> queryMetrics.count("member.searchPageComplex", () -> countCache.load(countQuery),
+                        () -> QueryMetrics.describe(countQuery))));
+
+    }
+
+    // offset 방식은 뒤 페이지로 갈수록 앞의 row를 읽고 버리기 때문에 느려진다.
+    // 마지막 member.id 를 cursor로 받아서 그 다음부터 조회한다. (count 쿼리도 필요 없음)
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
+                .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeLoe()),
-                        ageLoe(condition.getAgeGoe())
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
                 );
-//                .fetchCount()
-//                .fetch().size();
-
-
-
-
-//        return new PageImpl<>(content, pageable, total);
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
 
+        return queryMetrics.record("member.searchByCursor", QueryMetrics.CONTENT,
+                () -> KeysetPagination.fetch(query, member.id, MemberTeamDto::getMemberId, cursor, size),
+                page -> page.getContent().size(), () -> QueryMetrics.describe(query));
     }
+
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
@@ -0,0 +1,153 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.cache.TableWriteInspector;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 기동 시 MemberJpaRepository.search 의 조건 조합(shape) 1~15 를 한 번씩 실행해서 나간 SQL 을 모으고,
+ * 각 SQL 의 실행 계획(EXPLAIN)에 table scan 이 있으면 경고한다.
+ * 검색 값은 결과가 나오지 않는 값을 쓰므로 인덱스가 있으면 실행 비용은 거의 없다.
+ *
+ * H2 는 파라미터를 null 로 바인딩한 채 EXPLAIN 하고, PostgreSQL(16+) 은 ? 를 $n 으로 바꿔 EXPLAIN (GENERIC_PLAN) 한다.
+ * 그 밖의 DB 는 검사하지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.index-advisor", name = "enabled", havingValue = "true")
+public class MemberSearchIndexAdvisor implements ApplicationRunner {
+
+    private static final String PROBE = "__index_advisor__";
+    private static final Pattern H2_SCAN = Pattern.compile("(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PG_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    // hibernate.use_sql_comments 가 켜져 있으면 SQL 앞에 /* ... */ 주석이 붙는다.
+    private static final Pattern SELECT_STATEMENT = Pattern.compile("^\\s*(?:/\\*.*?\\*/\\s*)*select\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final TableWriteInspector inspector;
+    private final TransactionTemplate readOnlyTx;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndexAdvisorProperties properties;
+
+    public MemberSearchIndexAdvisor(MemberJpaRepository memberJpaRepository, TableWriteInspector inspector,
+                                    PlatformTransactionManager transactionManager, DataSource dataSource,
+                                    IndexAdvisorProperties properties) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.inspector = inspector;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                DatabaseMetaData::getDatabaseProductName).toLowerCase(Locale.ROOT);
+        boolean h2 = database.contains("h2");
+        boolean postgres = database.contains("postgres");
+        if (!h2 && !postgres) {
+            log.info("index advisor skipped: EXPLAIN is not supported for {}", database);
+            return;
+        }
+
+        List<String> problems = new ArrayList<>();
+        for (int shape = 1; shape < MemberJpaRepository.SEARCH_SHAPES; shape++) {
+            MemberSearchCondition condition = probeCondition(shape);
+            List<String> statements = inspector.capture(
+                    () -> readOnlyTx.executeWithoutResult(status -> memberJpaRepository.search(condition)));
+
+            for (String sql : statements) {
+                for (String table : tableScans(sql, h2)) {
+                    problems.add(describe(condition) + " -> table scan on " + table);
+                    log.warn("member search {} scans table {}\nsql: {}", describe(condition), table, sql);
+                }
+            }
+        }
+
+        if (problems.isEmpty()) {
+            log.info("index advisor: all {} member search shapes use indexes", MemberJpaRepository.SEARCH_SHAPES - 1);
+        } else if (properties.isFailOnScan()) {
+            throw new IllegalStateException("Member search shapes without index: " + problems);
+        }
+    }
+
+    /**
+     * select 문의 실행 계획에서 table scan 하는 테이블을 찾는다. select 가 아니면 빈 목록을 반환한다.
+     */
+    List<String> tableScans(String sql, boolean h2) {
+        if (!SELECT_STATEMENT.matcher(sql).find()) {
+            return List.of();
+        }
+        String plan = h2 ? explainH2(sql) : explainPostgres(sql);
+        log.debug("plan for {}\n{}", sql, plan);
+
+        List<String> tables = new ArrayList<>();
+        Matcher scan = (h2 ? H2_SCAN : PG_SCAN).matcher(plan);
+        while (scan.find()) {
+            tables.add(scan.group(1));
+        }
+        return tables;
+    }
+
+    private String explainH2(String sql) {
+        return String.join("\n", jdbcTemplate.query("EXPLAIN " + sql, (PreparedStatement ps) -> {
+            ParameterMetaData parameters = ps.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                ps.setNull(i, Types.NULL);
+            }
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    private String explainPostgres(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++index);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+    }
+
+    // shape 의 bit 마다 조건 하나를 채운다. 결과가 없도록 나이 범위는 비워 둔다.
+    private static MemberSearchCondition probeCondition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) condition.setUsername(PROBE);
+        if ((shape & 1 << 1) != 0) condition.setTeamName(PROBE);
+        if ((shape & 1 << 2) != 0) condition.setAgeGoe(200);
+        if ((shape & 1 << 3) != 0) condition.setAgeLoe(-1);
+        return condition;
+    }
+
+    private static String describe(MemberSearchCondition condition) {
+        List<String> filters = new ArrayList<>();
+        if (condition.getUsername() != null) filters.add("username");
+        if (condition.getTeamName() != null) filters.add("teamName");
+        if (condition.getAgeGoe() != null) filters.add("ageGoe");
+        if (condition.getAgeLoe() != null) filters.add("ageLoe");
+        return String.join("+", filters);
+    }
+}
@@ -9,11 +9,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.querydsl.jpa.JPAExpressions.*;
 import static org.springframework.util.StringUtils.*;
@@ -65,6 +67,35 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         );
     }
 
+    // to-one fetch join 은 row 수를 바꾸지 않으므로 페이징과 같이 써도 DB 에서 limit 이 걸린다.
+    // count 쿼리에서는 fetch join 과 team join 이 빠진다.
+    public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable, MemberFetchPlan fetchPlan) {
+        if (fetchPlan == MemberFetchPlan.NONE) {
+            return applyPagination(condition, pageable);
+        }
+        return applyPagination(pageable, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+        );
+    }
+
+    public CompletableFuture<Page<Member>> applyPaginationAsync(MemberSearchCondition condition, Pageable pageable) {
+        return applyPaginationAsync(pageable, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+        );
+    }
+
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
         return applyPagination(pageable, contentQuery -> contentQuery
                 .selectFrom(member)
@@ -84,6 +115,18 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 );
     }
 
+    public CursorPage<Member> applyKeysetPagination(MemberSearchCondition condition, String cursor, int size) {
+        return applyKeysetPagination(cursor, size, member.id, Member::getId, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+        );
+    }
+
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
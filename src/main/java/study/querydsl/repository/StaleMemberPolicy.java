@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+/**
+ * bulk update 후 영속성 컨텍스트에 남아 있는 (DB 와 값이 달라진) Member 를 어떻게 맞출지.
+ */
+public enum StaleMemberPolicy {
+
+    /**
+     * 영향받은 Member 만 영속성 컨텍스트에서 분리한다. 다시 조회하면 DB 값을 읽는다.
+     */
+    DETACH,
+
+    /**
+     * 영향받은 Member 를 DB 값으로 다시 읽어온다. (Member 마다 select 1번)
+     * delete 에서는 읽어올 row 가 없으므로 항상 DETACH 로 동작한다.
+     */
+    REFRESH
+}
@@ -0,0 +1,91 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.cache.TableWriteInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * team 은 작고 거의 바뀌지 않으므로 id <-> name 을 통째로 메모리에 들고 있는다.
+ * team 테이블에 쓰기가 발생하면 비우고 다음 조회 때 다시 읽는다. (query cache 를 타므로 보통 DB 까지 가지 않는다)
+ */
+@Component
+public class TeamDictionary {
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamDictionaryProperties properties;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public TeamDictionary(EntityManager em, TeamDictionaryProperties properties, TableWriteInspector inspector) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.properties = properties;
+        inspector.addListener("team", this::invalidate);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String nameOf(Long teamId) {
+        return teamId == null ? null : snapshot().namesById.get(teamId);
+    }
+
+    public List<Long> idsOf(String teamName) {
+        return snapshot().idsByName.getOrDefault(teamName, Collections.emptyList());
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        long startGeneration = generation.get();
+        List<Tuple> rows = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .fetch();
+
+        Map<Long, String> namesById = new HashMap<>();
+        Map<String, List<Long>> idsByName = new HashMap<>();
+        for (Tuple row : rows) {
+            namesById.put(row.get(team.id), row.get(team.name));
+            idsByName.computeIfAbsent(row.get(team.name), name -> new ArrayList<>()).add(row.get(team.id));
+        }
+        Snapshot loaded = new Snapshot(namesById, idsByName);
+
+        // 읽는 도중 team 이 바뀌었으면 이번 결과는 이번 호출에서만 쓰고 보관하지 않는다.
+        if (generation.get() == startGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private static class Snapshot {
+        private final Map<Long, String> namesById;
+        private final Map<String, List<Long>> idsByName;
+
+        Snapshot(Map<Long, String> namesById, Map<String, List<Long>> idsByName) {
+            this.namesById = namesById;
+            this.idsByName = idsByName;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.team-dictionary")
+public class TeamDictionaryProperties {
+
+    /**
+     * true 이면 member 검색에서 team 을 join 하지 않고 메모리의 team id -> name 사전으로 teamName 을 채운다.
+     */
+    private boolean enabled = false;
+}
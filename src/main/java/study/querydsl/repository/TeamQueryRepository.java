@@ -0,0 +1,50 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@Transactional(readOnly = true)
+public class TeamQueryRepository extends Querydsl4RepositorySupport {
+
+    public TeamQueryRepository() {
+        super(Team.class);
+    }
+
+    // team 을 members 와 함께 페이징한다.
+    // selectFrom(team).leftJoin(team.members, member).fetchJoin() 에 바로 offset/limit 을 걸면 메모리 페이징이 되므로 id 로 먼저 페이징한다.
+    public Page<Team> searchWithMembers(String teamName, Pageable pageable) {
+        return applyPaginationByIds(pageable,
+                idQuery -> idQuery
+                        .select(team.id)
+                        .from(team)
+                        .where(hasText(teamName) ? team.name.eq(teamName) : null),
+                (fetchQuery, ids) -> fetchQuery
+                        .selectFrom(team)
+                        .leftJoin(team.members, member).fetchJoin()
+                        .where(team.id.in(ids)),
+                Team::getId);
+    }
+
+    public CursorPage<Team> searchWithMembers(String teamName, String cursor, int size) {
+        return applyKeysetPaginationByIds(cursor, size, team.id,
+                idQuery -> idQuery
+                        .select(team.id)
+                        .from(team)
+                        .where(hasText(teamName) ? team.name.eq(teamName) : null),
+                (fetchQuery, ids) -> fetchQuery
+                        .selectFrom(team)
+                        .leftJoin(team.members, member).fetchJoin()
+                        .where(team.id.in(ids)),
+                Team::getId);
+    }
+}
@@ -0,0 +1,337 @@
+package study.querydsl.repository.cache;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 나이 -> member id 범위 조회용 인덱스. boxing 없이 primitive 배열만 쓴다.
+ * <ul>
+ *     <li>base: 나이 오름차순으로 정렬한 int[] ages 와 같은 위치의 long[] ids. 범위는 이진 탐색으로 시작/끝만 찾는다.</li>
+ *     <li>delta: 마지막 정렬 이후 추가된 (age, id). 정렬하지 않고 뒤에 붙이기만 한다.</li>
+ *     <li>tombstone: 삭제된 id -> 삭제 시점의 delta 길이. base 의 해당 id 와 그 이전에 delta 에 붙은 값을 가린다.</li>
+ * </ul>
+ * delta 와 tombstone 이 base 의 일정 비율을 넘으면 base 로 합친다.
+ * thread-safe 하지 않다. 읽기/쓰기 동기화는 사용하는 쪽(MemberSearchIndex)이 한다.
+ */
+public final class AgeRangeIndex {
+
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+    // 나이 범위가 이 이하면 counting sort, 넘으면 (age, 위치) 를 long 으로 묶어 정렬한다.
+    private static final int COUNTING_SORT_RANGE = 1 << 16;
+
+    private int[] ages;
+    private long[] ids;
+
+    private int[] deltaAges = new int[16];
+    private long[] deltaIds = new long[16];
+    private int deltaSize;
+
+    private final LongIntMap tombstones = new LongIntMap();
+
+    private AgeRangeIndex(int[] ages, long[] ids) {
+        this.ages = ages;
+        this.ids = ids;
+    }
+
+    public static AgeRangeIndex empty() {
+        return new AgeRangeIndex(new int[0], new long[0]);
+    }
+
+    /**
+     * ages[i] 가 ids[i] 의 나이인 배열로 인덱스를 만든다. 인자 배열은 바꾸지 않는다.
+     */
+    public static AgeRangeIndex build(int[] ages, long[] ids) {
+        return build(ages, ids, ages.length);
+    }
+
+    public static AgeRangeIndex build(int[] ages, long[] ids, int size) {
+        if (ages.length < size || ids.length < size) {
+            throw new IllegalArgumentException("ages/ids are shorter than size " + size);
+        }
+        int[] sortedAges = new int[size];
+        long[] sortedIds = new long[size];
+        sortInto(ages, ids, size, sortedAges, sortedIds);
+        return new AgeRangeIndex(sortedAges, sortedIds);
+    }
+
+    /**
+     * 이 id 가 인덱스에 없을 때만 쓴다. 나이가 바뀌면 update 를 쓴다.
+     */
+    public void add(long id, int age) {
+        if (deltaSize == deltaAges.length) {
+            deltaAges = Arrays.copyOf(deltaAges, deltaSize * 2);
+            deltaIds = Arrays.copyOf(deltaIds, deltaSize * 2);
+        }
+        deltaAges[deltaSize] = age;
+        deltaIds[deltaSize] = id;
+        deltaSize++;
+        compactIfNeeded();
+    }
+
+    public void remove(long id) {
+        tombstones.put(id, deltaSize);
+        compactIfNeeded();
+    }
+
+    public void update(long id, int age) {
+        tombstones.put(id, deltaSize);
+        add(id, age);
+    }
+
+    /**
+     * from <= age <= to 인 member id 를 consumer 에 넘기고 개수를 반환한다.
+     * base 부분은 나이 순서, delta 부분은 추가된 순서다.
+     */
+    public int range(int from, int to, LongConsumer consumer) {
+        if (from > to) {
+            return 0;
+        }
+        int count = 0;
+        int end = to == Integer.MAX_VALUE ? ages.length : lowerBound(to + 1);
+        boolean checkTombstones = !tombstones.isEmpty();
+        for (int i = lowerBound(from); i < end; i++) {
+            long id = ids[i];
+            if (!checkTombstones || !tombstones.containsKey(id)) {
+                consumer.accept(id);
+                count++;
+            }
+        }
+        for (int i = 0; i < deltaSize; i++) {
+            int age = deltaAges[i];
+            if (age >= from && age <= to && liveDelta(i)) {
+                consumer.accept(deltaIds[i]);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long[] range(int from, int to) {
+        LongBuffer buffer = new LongBuffer();
+        range(from, to, buffer);
+        return buffer.toArray();
+    }
+
+    /**
+     * delta 와 tombstone 을 base 에 합친다. 남아 있는 값만 다시 정렬된 배열로 만든다.
+     */
+    public void compact() {
+        if (deltaSize == 0 && tombstones.isEmpty()) {
+            return;
+        }
+
+        int liveDelta = 0;
+        int[] newAges = new int[deltaSize];
+        long[] newIds = new long[deltaSize];
+        for (int i = 0; i < deltaSize; i++) {
+            if (liveDelta(i)) {
+                newAges[liveDelta] = deltaAges[i];
+                newIds[liveDelta] = deltaIds[i];
+                liveDelta++;
+            }
+        }
+        int[] sortedDeltaAges = new int[liveDelta];
+        long[] sortedDeltaIds = new long[liveDelta];
+        sortInto(newAges, newIds, liveDelta, sortedDeltaAges, sortedDeltaIds);
+
+        // 둘 다 나이 순이므로 merge 한다.
+        int[] mergedAges = new int[ages.length + liveDelta];
+        long[] mergedIds = new long[ages.length + liveDelta];
+        int size = 0;
+        int b = 0;
+        int d = 0;
+        while (b < ages.length || d < liveDelta) {
+            if (b < ages.length && tombstones.containsKey(ids[b])) {
+                b++;
+                continue;
+            }
+            if (d >= liveDelta || (b < ages.length && ages[b] <= sortedDeltaAges[d])) {
+                mergedAges[size] = ages[b];
+                mergedIds[size++] = ids[b++];
+            } else {
+                mergedAges[size] = sortedDeltaAges[d];
+                mergedIds[size++] = sortedDeltaIds[d++];
+            }
+        }
+
+        ages = size == mergedAges.length ? mergedAges : Arrays.copyOf(mergedAges, size);
+        ids = size == mergedIds.length ? mergedIds : Arrays.copyOf(mergedIds, size);
+        deltaAges = new int[16];
+        deltaIds = new long[16];
+        deltaSize = 0;
+        tombstones.clear();
+    }
+
+    public int baseSize() {
+        return ages.length;
+    }
+
+    public int deltaSize() {
+        return deltaSize;
+    }
+
+    private void compactIfNeeded() {
+        if (deltaSize + tombstones.size() > Math.max(MIN_COMPACT_THRESHOLD, ages.length >>> 4)) {
+            compact();
+        }
+    }
+
+    // 같은 id 가 delta 에 붙은 뒤 삭제(tombstone)됐으면 가려진 값이다.
+    private boolean liveDelta(int position) {
+        int removedAt = tombstones.get(deltaIds[position]);
+        return removedAt == LongIntMap.MISSING || position >= removedAt;
+    }
+
+    private int lowerBound(int age) {
+        int low = 0;
+        int high = ages.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[mid] < age) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void sortInto(int[] ages, long[] ids, int size, int[] sortedAges, long[] sortedIds) {
+        if (size == 0) {
+            return;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, ages[i]);
+            max = Math.max(max, ages[i]);
+        }
+
+        if ((long) max - min < COUNTING_SORT_RANGE) {
+            // 나이는 값의 범위가 좁으므로 대부분 O(n) counting sort 로 끝난다. 같은 나이는 입력 순서를 유지한다.
+            int[] offsets = new int[max - min + 2];
+            for (int i = 0; i < size; i++) {
+                offsets[ages[i] - min + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            for (int i = 0; i < size; i++) {
+                int position = offsets[ages[i] - min]++;
+                sortedAges[position] = ages[i];
+                sortedIds[position] = ids[i];
+            }
+            return;
+        }
+
+        // 상위 32bit 에 age, 하위 32bit 에 입력 위치를 넣으면 long 정렬 한 번으로 (age, 위치) 순서가 된다.
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = (long) ages[i] << 32 | i;
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < size; i++) {
+            int position = (int) packed[i];
+            sortedAges[i] = ages[position];
+            sortedIds[i] = ids[position];
+        }
+    }
+
+    private static final class LongBuffer implements LongConsumer {
+        private long[] values = new long[16];
+        private int size;
+
+        @Override
+        public void accept(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * long -> int open addressing map (linear probing). tombstone 은 compact 때 통째로 비우므로 개별 삭제는 없다.
+     */
+    private static final class LongIntMap {
+
+        static final int MISSING = -1;
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return MISSING;
+        }
+
+        boolean containsKey(long key) {
+            return get(key) != MISSING;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = new int[16];
+            used = new boolean[16];
+            size = 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package study.querydsl.repository.cache;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 검색 조건별 count 결과를 TTL / 최대 크기 기준으로 보관한다.
+ * 대상 테이블에 쓰기가 발생하면 {@link #invalidateAll()} 로 전부 비운다.
+ * replica 에서 읽는 경우 무효화 직후의 count 는 쓰기가 아직 복제되지 않은 값일 수 있으므로,
+ * 무효화 후 replicaLag 동안 구한 count 는 반환만 하고 캐시에 넣지 않는다.
+ */
+public class CountCache<K> {
+
+    private final CountCacheProperties properties;
+    private final Map<K, Entry> entries;
+
+    // invalidate 될 때마다 증가한다. 조회 도중 invalidate 된 count 는 캐시에 넣지 않기 위해 사용한다.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long replicaLagNanos;
+    private volatile long invalidatedAt;
+
+    public CountCache(CountCacheProperties properties) {
+        this(properties, Duration.ZERO);
+    }
+
+    /**
+     * @param replicaLag count 를 읽는 replica 의 최대 허용 지연. replica 를 쓰지 않으면 0
+     */
+    public CountCache(CountCacheProperties properties, Duration replicaLag) {
+        this.properties = properties;
+        this.replicaLagNanos = replicaLag.toNanos();
+        this.invalidatedAt = System.nanoTime() - replicaLagNanos;
+        int maxSize = properties.getMaxSize();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public long count(K key, JPAQuery<?> countQuery) {
+        return count(key, () -> load(countQuery));
+    }
+
+    /**
+     * @param loader cache miss 일 때 실행할 count. 보통 {@link #load(JPAQuery)} 를 감싼 함수를 넘긴다.
+     */
+    public long count(K key, LongSupplier loader) {
+        if (!properties.isEnabled()) {
+            return loader.getAsLong();
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                return entry.count;
+            }
+        }
+
+        long startGeneration = generation.get();
+        boolean recentlyInvalidated = now - invalidatedAt < replicaLagNanos;
+        long count = loader.getAsLong();
+        synchronized (entries) {
+            if (generation.get() == startGeneration && !recentlyInvalidated) {
+                entries.put(key, new Entry(count, now + properties.getTtl().toNanos()));
+            }
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        invalidatedAt = System.nanoTime();
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 정확한 count 또는 estimate-threshold 로 잘린 count 를 DB 에서 구한다. (캐시를 거치지 않음)
+     */
+    public long load(JPAQuery<?> countQuery) {
+        long threshold = properties.getEstimateThreshold();
+        if (threshold <= 0) {
+            return countQuery.fetchCount();
+        }
+        // CountQueries.derive 는 content 쿼리를 그대로 돌려줄 수 있으므로 복사본에 limit 을 건다. (offset 도 지운다)
+        long found = countQuery.clone().restrict(new QueryModifiers(threshold + 1, 0L)).fetch().size();
+        return Math.min(found, threshold);
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.repository.cache;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.config.ReplicaProperties;
+
+import java.time.Duration;
+
+@Configuration
+public class CountCacheConfig {
+
+    @Bean
+    public CountCache<MemberSearchKey> memberCountCache(CountCacheProperties properties, ReplicaProperties replicaProperties,
+                                                        TableWriteInspector inspector) {
+        // 읽기 전용 트랜잭션의 count 는 replica 에서 읽으므로 무효화 직후 max-lag 동안은 캐시를 채우지 않는다.
+        Duration replicaLag = replicaProperties.isEnabled() ? replicaProperties.getMaxLag() : Duration.ZERO;
+        CountCache<MemberSearchKey> cache = new CountCache<>(properties, replicaLag);
+        // member left join team 결과 건수는 두 테이블 어느 쪽이 바뀌어도 달라질 수 있다.
+        inspector.addListener("member", cache::invalidateAll);
+        inspector.addListener("team", cache::invalidateAll);
+        return cache;
+    }
+}
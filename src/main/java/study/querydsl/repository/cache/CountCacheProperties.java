@@ -0,0 +1,28 @@
+package study.querydsl.repository.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.count-cache")
+public class CountCacheProperties {
+
+    /**
+     * true 이면 /v3/members(searchPageComplex) 의 totalElements 를 ttl 동안 재사용한다.
+     * 이 애플리케이션을 거친 쓰기는 바로 무효화되지만, 다른 인스턴스나 DB 에서 직접 바뀐 건수는 ttl 이 지나야 반영된다.
+     */
+    private boolean enabled = false;
+
+    private Duration ttl = Duration.ofSeconds(10);
+
+    private int maxSize = 1000;
+
+    /**
+     * 0 보다 크면 count(*) 대신 최대 (threshold + 1) 건의 id 만 읽어서 센다.
+     * 결과가 threshold 를 넘으면 정확한 값 대신 threshold 를 total 로 돌려준다. ("threshold 건 이상")
+     */
+    private long estimateThreshold = 0;
+}
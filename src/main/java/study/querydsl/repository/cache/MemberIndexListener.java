@@ -0,0 +1,63 @@
+package study.querydsl.repository.cache;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * Member / Team 엔티티 변경을 MemberSearchIndex 에 전달한다.
+ * 엔티티가 인덱스를 알지 않도록 MemberIndexListenerConfig 가 Hibernate 이벤트 리스너로 등록한다.
+ */
+public class MemberIndexListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final MemberSearchIndex index;
+
+    public MemberIndexListener(MemberSearchIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!index.isEnabled()) {
+            return;
+        }
+        if (event.getEntity() instanceof Member member) {
+            index.memberRemoved(member.getId());
+        } else if (event.getEntity() instanceof Team team) {
+            index.teamRemoved(team.getId());
+        }
+    }
+
+    // 커밋 후 반영은 MemberSearchIndex 가 트랜잭션 동기화로 처리한다.
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void saved(Object entity) {
+        if (!index.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Member member) {
+            index.memberSaved(member);
+        } else if (entity instanceof Team team) {
+            index.teamSaved(team);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.repository.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MemberIndexListenerConfig {
+
+    @Bean
+    public MemberIndexListener memberIndexListener(EntityManagerFactory emf, MemberSearchIndex index) {
+        MemberIndexListener listener = new MemberIndexListener(index);
+        // @EntityListeners 대신 SessionFactory 에 직접 붙여서 entity 패키지가 인덱스에 의존하지 않게 한다.
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,547 @@
+package study.querydsl.repository.cache;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberMatchers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member 검색(username 일치, team 이름, 나이 범위)을 메모리에서 처리하는 인덱스.
+ * <ul>
+ *     <li>username -> member id (hash)</li>
+ *     <li>team id -> member id 목록 (posting list), team 이름 -> team id</li>
+ *     <li>나이 -> member id (AgeRangeIndex)</li>
+ * </ul>
+ * 가장 좁은 인덱스로 후보를 고른 뒤 나머지 조건은 MemberMatchers 로 거른다.
+ *
+ * 엔티티 단위 변경은 MemberIndexListener (Hibernate 이벤트 리스너) 가 커밋 후에 반영하고, bulk update/delete 처럼 엔티티를 거치지 않는 변경은
+ * TableWriteInspector 가 알려주면 인덱스를 stale 로 표시하고 트랜잭션이 끝난 뒤 전체를 다시 읽는다.
+ * stale 이거나 아직 만들어지지 않았으면 search 는 빈 Optional 을 반환하고 호출하는 쪽이 DB 로 조회한다.
+ *
+ * snapshot.path 를 설정하면 인덱스를 주기적으로 MemberSnapshot 파일에 저장하고, 재시작할 때 그 파일로 먼저 채워서
+ * DB 를 다시 읽는 동안에도 검색을 메모리에서 처리한다. 스냅샷은 파일을 빨리 읽기 위한 것이고 읽은 row 는 heap 의 인덱스로
+ * 옮기므로 메모리 사용량은 DB 에서 읽을 때와 같다. 이어지는 DB 읽기가 실패하면 스냅샷으로 채운 인덱스는 버린다.
+ */
+@Slf4j
+@Component
+public class MemberSearchIndex {
+
+    private final EntityManagerFactory emf;
+    private final MemberSearchIndexProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 다시 읽기와 스냅샷 저장을 한 thread 에서 순서대로 한다.
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // bulk 변경이 있을 때마다 증가한다. 다시 읽는 도중 바뀌었으면 읽은 값에 빠진 변경이 있을 수 있으므로 한 번 더 읽는다.
+    private final AtomicLong bulkGeneration = new AtomicLong();
+    // 다시 읽기는 한 번에 하나만 한다. (worker 와 rebuild() 를 직접 부르는 쪽)
+    private final Object rebuildLock = new Object();
+    // 다시 읽는 동안 반영된 엔티티 변경. 읽은 값으로 교체한 뒤 같은 순서로 다시 적용한다. write lock 안에서만 쓴다.
+    private List<Runnable> changesDuringLoad;
+
+    private volatile boolean ready;
+    private volatile boolean stale;
+    // 스냅샷으로 채운 뒤 아직 DB 에서 다시 읽지 못했다.
+    private volatile boolean fromSnapshot;
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final Map<String, Set<Long>> idsByUsername = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByTeam = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    private final Map<String, Set<Long>> teamIdsByName = new HashMap<>();
+    private AgeRangeIndex ageIndex = AgeRangeIndex.empty();
+
+    public MemberSearchIndex(EntityManagerFactory emf, MemberSearchIndexProperties properties, TableWriteInspector inspector) {
+        this.emf = emf;
+        this.properties = properties;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("member-index-");
+        threadFactory.setDaemon(true);
+        this.worker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        inspector.addBulkListener("member", this::markStale);
+        inspector.addBulkListener("team", this::markStale);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isReady() {
+        return ready && !stale;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        Path snapshotPath = properties.getSnapshot().getPath();
+        if (snapshotPath != null) {
+            loadSnapshot(snapshotPath);
+            long interval = properties.getSnapshot().getInterval().toMillis();
+            worker.scheduleWithFixedDelay(this::saveSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        scheduleRebuild();
+    }
+
+    public Optional<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        if (!isEnabled() || !isReady()) {
+            return Optional.empty();
+        }
+
+        Predicate<MemberTeamDto> matcher = MemberMatchers.dtoMatcher(condition);
+        lock.readLock().lock();
+        try {
+            if (!isReady()) {
+                return Optional.empty();
+            }
+            List<MemberTeamDto> result = new ArrayList<>();
+            forEachCandidate(condition, id -> {
+                Row row = rows.get(id);
+                if (row != null) {
+                    MemberTeamDto dto = row.toDto(row.teamId == null ? null : teamNames.get(row.teamId));
+                    if (matcher.test(dto)) {
+                        result.add(dto);
+                    }
+                }
+            });
+            result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 가장 좁을 것으로 예상되는 인덱스 하나로 후보 id 를 고른다.
+    private void forEachCandidate(MemberSearchCondition condition, LongConsumer action) {
+        if (hasText(condition.getUsername())) {
+            idsByUsername.getOrDefault(condition.getUsername(), Set.of()).forEach(action::accept);
+        } else if (hasText(condition.getTeamName())) {
+            for (Long teamId : teamIdsByName.getOrDefault(condition.getTeamName(), Set.of())) {
+                idsByTeam.getOrDefault(teamId, Set.of()).forEach(action::accept);
+            }
+        } else if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            ageIndex.range(
+                    condition.getAgeGoe() == null ? Integer.MIN_VALUE : condition.getAgeGoe(),
+                    condition.getAgeLoe() == null ? Integer.MAX_VALUE : condition.getAgeLoe(),
+                    action);
+        } else {
+            rows.keySet().forEach(action::accept);
+        }
+    }
+
+    void memberSaved(Member entity) {
+        // 커밋 시점에는 엔티티가 다시 바뀌었을 수 있으므로 지금 값을 복사해 둔다. team 은 프록시여도 id 는 초기화 없이 읽힌다.
+        Row row = new Row(entity.getId(), entity.getUsername(), entity.getAge(),
+                entity.getTeam() == null ? null : entity.getTeam().getId());
+        afterCommit(() -> apply(() -> {
+            if (removeRow(row.memberId)) {
+                ageIndex.update(row.memberId, row.age);
+            } else {
+                ageIndex.add(row.memberId, row.age);
+            }
+            addRow(row);
+        }));
+    }
+
+    void memberRemoved(Long memberId) {
+        afterCommit(() -> apply(() -> {
+            if (removeRow(memberId)) {
+                ageIndex.remove(memberId);
+            }
+        }));
+    }
+
+    void teamSaved(Team entity) {
+        Long teamId = entity.getId();
+        String name = entity.getName();
+        afterCommit(() -> apply(() -> {
+            removeTeam(teamId);
+            teamNames.put(teamId, name);
+            teamIdsByName.computeIfAbsent(name, n -> new HashSet<>()).add(teamId);
+        }));
+    }
+
+    void teamRemoved(Long teamId) {
+        afterCommit(() -> apply(() -> removeTeam(teamId)));
+    }
+
+    // 커밋된 엔티티 변경을 인덱스에 반영한다. 다시 읽는 중이면 읽은 값에 없을 수 있으므로 기록해 둔다.
+    // 변경은 지금 인덱스 상태를 기준으로 동작하므로 (있으면 교체, 없으면 추가) 읽은 값에 이미 들어 있어도 다시 적용해도 된다.
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * bulk 변경이 있었다. TableWriteInspector 가 트랜잭션이 끝날 때 한 번 더 호출하므로
+     * 커밋 전에 다시 읽은 값은 그때 커밋된 값으로 바뀐다.
+     */
+    public void markStale() {
+        if (!isEnabled()) {
+            return;
+        }
+        stale = true;
+        bulkGeneration.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            worker.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("member search index rebuild failed, searches fall back to the database", e);
+                }
+            }, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 현재 thread 에서 member / team 전체를 다시 읽어 인덱스를 교체한다.
+     * 읽는 동안 커밋된 엔티티 변경은 읽은 값 위에 다시 적용하므로 엔티티 변경이 계속 들어와도 교체된다.
+     * 교체하지 못하면 스냅샷으로 채운 인덱스는 최대 max-age 만큼 오래됐을 수 있으므로 버리고 DB 로 조회하게 한다.
+     */
+    public void rebuild() {
+        boolean rebuilt = false;
+        try {
+            rebuilt = reload();
+        } finally {
+            if (!rebuilt) {
+                discardSnapshot();
+            }
+        }
+    }
+
+    private boolean reload() {
+        synchronized (rebuildLock) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                long startGeneration = bulkGeneration.get();
+                recordChanges(new ArrayList<>());
+                try {
+                    Loaded loaded = load();
+                    if (loaded == null) {
+                        return false;
+                    }
+
+                    lock.writeLock().lock();
+                    try {
+                        if (bulkGeneration.get() != startGeneration) {
+                            continue;
+                        }
+                        replaceAll(loaded);
+                        changesDuringLoad.forEach(Runnable::run);
+                        stale = false;
+                        log.info("member search index built: {} members, {} teams, {} changes replayed",
+                                rows.size(), teamNames.size(), changesDuringLoad.size());
+                        return true;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                } finally {
+                    recordChanges(null);
+                }
+            }
+        }
+        // bulk 변경이 계속 이어졌다. 다음 bulk 변경을 기다리지 않고 다시 읽도록 예약한다.
+        log.info("member search index kept changing while loading, rebuild rescheduled");
+        scheduleRebuild();
+        return false;
+    }
+
+    private void recordChanges(List<Runnable> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringLoad = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void discardSnapshot() {
+        lock.writeLock().lock();
+        try {
+            if (!fromSnapshot) {
+                return;
+            }
+            replaceAll(new Loaded(List.of(), Map.of()));
+            ready = false;
+            fromSnapshot = false;
+            log.warn("member search index loaded from snapshot was discarded, searches fall back to the database");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // write lock 안에서 호출한다.
+    private void replaceAll(Loaded loaded) {
+        rows.clear();
+        idsByUsername.clear();
+        idsByTeam.clear();
+        teamNames.clear();
+        teamIdsByName.clear();
+        int[] ages = new int[loaded.rows.size()];
+        long[] ids = new long[loaded.rows.size()];
+        for (int i = 0; i < ages.length; i++) {
+            Row row = loaded.rows.get(i);
+            addRow(row);
+            ages[i] = row.age;
+            ids[i] = row.memberId;
+        }
+        ageIndex = AgeRangeIndex.build(ages, ids);
+        loaded.teams.forEach((id, name) -> {
+            teamNames.put(id, name);
+            teamIdsByName.computeIfAbsent(name, n -> new HashSet<>()).add(id);
+        });
+        ready = true;
+        fromSnapshot = false;
+    }
+
+    /**
+     * 스냅샷 파일로 인덱스를 채운다. 이후 DB 에서 다시 읽으면 교체되고, 다시 읽지 못하면 버려진다.
+     * 파일은 mmap 으로 읽지만 row 는 heap 의 인덱스로 복사한다.
+     * 파일이 없거나, 오래됐거나, 형식이 맞지 않으면 아무것도 하지 않는다.
+     */
+    public boolean loadSnapshot(Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            MemberSnapshot snapshot = MemberSnapshot.load(path);
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - snapshot.createdAt());
+            if (age.compareTo(properties.getSnapshot().getMaxAge()) > 0) {
+                log.info("member snapshot {} is {} old, skipped", path, age);
+                return false;
+            }
+
+            List<Row> snapshotRows = new ArrayList<>(snapshot.size());
+            Map<Long, String> teams = new HashMap<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                Row row = new Row(snapshot.memberId(i), snapshot.username(i), snapshot.age(i), snapshot.teamId(i));
+                snapshotRows.add(row);
+                if (row.teamId != null) {
+                    teams.putIfAbsent(row.teamId, snapshot.teamName(i));
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (ready) {
+                    return false;
+                }
+                replaceAll(new Loaded(snapshotRows, teams));
+                fromSnapshot = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("member search index loaded from snapshot {}: {} members, {} old", path, snapshotRows.size(), age);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("member snapshot {} could not be loaded: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 현재 인덱스를 snapshot.path 에 저장한다. 준비되지 않았거나 stale 이거나 아직 스냅샷으로 채운 상태면 저장하지 않는다.
+     * (스냅샷으로 채운 내용을 다시 저장하면 만든 시각만 새로워져 max-age 가 의미 없어진다)
+     */
+    public void saveSnapshot() {
+        Path path = properties.getSnapshot().getPath();
+        if (path == null || !isReady() || fromSnapshot) {
+            return;
+        }
+        // lock 안에서는 참조만 복사하고 파일은 lock 밖에서 쓴다. Row 는 바뀌지 않으므로 복사한 목록은 그 시점의 인덱스다.
+        List<Row> snapshotRows;
+        Map<Long, String> teams;
+        lock.readLock().lock();
+        try {
+            if (!isReady() || fromSnapshot) {
+                return;
+            }
+            snapshotRows = new ArrayList<>(rows.values());
+            teams = new HashMap<>(teamNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try (MemberSnapshot.Writer writer = MemberSnapshot.writer(path)) {
+            for (Row row : snapshotRows) {
+                writer.add(row.memberId, row.username, row.age, row.teamId,
+                        row.teamId == null ? null : teams.get(row.teamId));
+            }
+            writer.commit();
+            log.debug("member snapshot saved: {} members", snapshotRows.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("member snapshot {} could not be saved: {}", path, e.getMessage());
+        }
+    }
+
+    private Loaded load() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            Long count = queryFactory.select(member.count()).from(member).fetchOne();
+            if (count != null && count > properties.getMaxMembers()) {
+                log.warn("member search index disabled: {} members exceed querydsl.search-index.max-members={}",
+                        count, properties.getMaxMembers());
+                return null;
+            }
+
+            List<Row> memberRows = new ArrayList<>();
+            try (Stream<Tuple> stream = queryFactory
+                    .select(member.id, member.username, member.age, member.team.id)
+                    .from(member)
+                    .stream()) {
+                stream.forEach(t -> memberRows.add(new Row(t.get(member.id), t.get(member.username),
+                        t.get(member.age), t.get(member.team.id))));
+            }
+            Map<Long, String> teams = new HashMap<>();
+            for (Tuple t : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                teams.put(t.get(team.id), t.get(team.name));
+            }
+            return new Loaded(memberRows, teams);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void addRow(Row row) {
+        rows.put(row.memberId, row);
+        if (row.username != null) {
+            idsByUsername.computeIfAbsent(row.username, u -> new HashSet<>()).add(row.memberId);
+        }
+        if (row.teamId != null) {
+            idsByTeam.computeIfAbsent(row.teamId, t -> new HashSet<>()).add(row.memberId);
+        }
+    }
+
+    private boolean removeRow(Long memberId) {
+        Row previous = rows.remove(memberId);
+        if (previous == null) {
+            return false;
+        }
+        if (previous.username != null) {
+            removeFrom(idsByUsername, previous.username, memberId);
+        }
+        if (previous.teamId != null) {
+            removeFrom(idsByTeam, previous.teamId, memberId);
+        }
+        return true;
+    }
+
+    private void removeTeam(Long teamId) {
+        String previous = teamNames.remove(teamId);
+        if (previous != null) {
+            removeFrom(teamIdsByName, previous, teamId);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // 롤백된 변경이 인덱스에 들어가지 않도록 커밋된 뒤에 반영한다.
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+        // 다음 시작 때 가장 최근 상태로 채울 수 있도록 종료할 때도 저장한다.
+        if (isEnabled()) {
+            saveSnapshot();
+        }
+    }
+
+    private static final class Row {
+        private final Long memberId;
+        private final String username;
+        private final int age;
+        private final Long teamId;
+
+        private Row(Long memberId, String username, Integer age, Long teamId) {
+            this.memberId = memberId;
+            this.username = username;
+            this.age = age == null ? 0 : age;
+            this.teamId = teamId;
+        }
+
+        private MemberTeamDto toDto(String teamName) {
+            return new MemberTeamDto(memberId, username, age, teamId, teamName);
+        }
+    }
+
+    private static final class Loaded {
+        private final List<Row> rows;
+        private final Map<Long, String> teams;
+
+        private Loaded(List<Row> rows, Map<Long, String> teams) {
+            this.rows = rows;
+            this.teams = teams;
+        }
+    }
+}
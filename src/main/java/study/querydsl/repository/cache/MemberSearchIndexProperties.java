@@ -0,0 +1,48 @@
+package study.querydsl.repository.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.search-index")
+public class MemberSearchIndexProperties {
+
+    /**
+     * true 이면 member 검색을 메모리 인덱스에서 처리한다. 인덱스가 준비되지 않았거나 bulk 변경 후 다시 만드는 중이면 DB 로 조회한다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * member 수가 이보다 많으면 인덱스를 만들지 않고 계속 DB 로 조회한다.
+     */
+    private int maxMembers = 1_000_000;
+
+    /**
+     * bulk 변경 후 다시 읽기 전에 기다리는 시간. 그동안 이어진 bulk 변경은 한 번의 다시 읽기로 묶이고, 검색은 DB 로 조회한다.
+     */
+    private Duration rebuildDelay = Duration.ofMillis(100);
+
+    private Snapshot snapshot = new Snapshot();
+
+    @Getter @Setter
+    public static class Snapshot {
+
+        /**
+         * 인덱스 스냅샷 파일. 설정하면 interval 마다 저장하고, 시작할 때 읽어서 DB 를 다시 읽는 동안 검색에 쓴다.
+         * 파일은 mmap 으로 빠르게 읽을 뿐이고 인덱스는 DB 에서 읽을 때와 같은 만큼 heap 을 쓴다.
+         */
+        private Path path;
+
+        private Duration interval = Duration.ofMinutes(5);
+
+        /**
+         * 이보다 오래된 스냅샷은 시작할 때 쓰지 않는다. 읽은 스냅샷은 DB 를 다시 읽을 때까지(보통 수 초) 그대로 조회되고,
+         * 다시 읽지 못하면 버린다.
+         */
+        private Duration maxAge = Duration.ofHours(1);
+    }
+}
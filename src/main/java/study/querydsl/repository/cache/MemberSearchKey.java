@@ -0,0 +1,57 @@
+package study.querydsl.repository.cache;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Objects;
+
+/**
+ * 캐시 key 로 쓰기 위해 정규화한 검색 조건.
+ * 쿼리에서 hasText 로 거르는 값(null, "", "  ")은 모두 같은 조건이므로 null 로 맞춰준다.
+ */
+public final class MemberSearchKey {
+
+    private final String username;
+    private final String teamName;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+
+    private MemberSearchKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        this.username = username;
+        this.teamName = teamName;
+        this.ageGoe = ageGoe;
+        this.ageLoe = ageLoe;
+    }
+
+    public static MemberSearchKey of(MemberSearchCondition condition) {
+        return new MemberSearchKey(
+                normalize(condition.getUsername()),
+                normalize(condition.getTeamName()),
+                condition.getAgeGoe(),
+                condition.getAgeLoe());
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MemberSearchKey that)) return false;
+        return Objects.equals(username, that.username)
+                && Objects.equals(teamName, that.teamName)
+                && Objects.equals(ageGoe, that.ageGoe)
+                && Objects.equals(ageLoe, that.ageLoe);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, teamName, ageGoe, ageLoe);
+    }
+
+    @Override
+    public String toString() {
+        return "MemberSearchKey(username=" + username + ", teamName=" + teamName
+                + ", ageGoe=" + ageGoe + ", ageLoe=" + ageLoe + ")";
+    }
+}
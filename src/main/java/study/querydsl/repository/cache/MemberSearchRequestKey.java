@@ -0,0 +1,49 @@
+package study.querydsl.repository.cache;
+
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Objects;
+
+/**
+ * SingleFlight key. 정규화한 검색 조건 + 페이지 + 어느 검색인지(v1/v2/v3 는 결과 형태가 다르다).
+ */
+public final class MemberSearchRequestKey {
+
+    private final String search;
+    private final MemberSearchKey condition;
+    private final Pageable pageable;
+
+    private MemberSearchRequestKey(String search, MemberSearchKey condition, Pageable pageable) {
+        this.search = search;
+        this.condition = condition;
+        this.pageable = pageable;
+    }
+
+    public static MemberSearchRequestKey of(String search, MemberSearchCondition condition) {
+        return of(search, condition, Pageable.unpaged());
+    }
+
+    public static MemberSearchRequestKey of(String search, MemberSearchCondition condition, Pageable pageable) {
+        return new MemberSearchRequestKey(search, MemberSearchKey.of(condition), pageable);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MemberSearchRequestKey that)) return false;
+        return search.equals(that.search)
+                && condition.equals(that.condition)
+                && pageable.equals(that.pageable);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(search, condition, pageable);
+    }
+
+    @Override
+    public String toString() {
+        return "MemberSearchRequestKey(search=" + search + ", condition=" + condition + ", pageable=" + pageable + ")";
+    }
+}
@@ -0,0 +1,264 @@
+package study.querydsl.repository.cache;
+
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberTeamDto row 들을 파일로 저장한 스냅샷. 읽을 때는 파일을 mmap 해서 heap 에 복사하지 않고 바로 읽는다.
+ * (MemberSearchIndex 는 시작할 때 이 파일을 빨리 읽는 데만 쓰고 row 는 자기 인덱스로 복사한다)
+ * <pre>
+ * header     32 byte   magic(int) version(int) rowCount(int) dictionaryCount(int) createdAt(long) dictionaryOffset(long)
+ * rows       28 byte * rowCount
+ *                      memberId(long) teamId(long, 없으면 -1) age(int) username(int) teamName(int)
+ *                      username / teamName 은 dictionary 번호, 없으면 -1
+ * dictionary (dictionaryCount + 1) * int 시작 위치 + UTF-8 bytes
+ * </pre>
+ * 같은 문자열(team 이름 등)은 dictionary 에 한 번만 저장된다. byte order 는 little endian 이다.
+ */
+public final class MemberSnapshot {
+
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ROW_SIZE = 28;
+    private static final int NONE = -1;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int dictionaryCount;
+    private final long createdAt;
+    private final int dictionaryOffset;
+    private final int bytesOffset;
+    // dictionary 는 처음 읽을 때 한 번만 decode 한다. 같은 team 이름은 같은 String 을 쓴다.
+    private final String[] decoded;
+
+    private MemberSnapshot(ByteBuffer buffer, int rowCount, int dictionaryCount, long createdAt, int dictionaryOffset) {
+        this.buffer = buffer;
+        this.rowCount = rowCount;
+        this.dictionaryCount = dictionaryCount;
+        this.createdAt = createdAt;
+        this.dictionaryOffset = dictionaryOffset;
+        this.bytesOffset = dictionaryOffset + (dictionaryCount + 1) * Integer.BYTES;
+        this.decoded = new String[dictionaryCount];
+    }
+
+    /**
+     * 파일을 읽기 전용으로 mmap 한다. 형식이 맞지 않으면 IOException 을 던진다.
+     * mapping 은 이 객체가 GC 될 때 해제된다.
+     */
+    public static MemberSnapshot load(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("invalid member snapshot size " + size + ": " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        int magic = buffer.getInt(0);
+        int version = buffer.getInt(4);
+        int rowCount = buffer.getInt(8);
+        int dictionaryCount = buffer.getInt(12);
+        long createdAt = buffer.getLong(16);
+        long dictionaryOffset = buffer.getLong(24);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("not a member snapshot (version " + VERSION + "): " + file);
+        }
+        long bytesOffset = dictionaryOffset + (dictionaryCount + 1L) * Integer.BYTES;
+        if (rowCount < 0 || dictionaryCount < 0
+                || HEADER_SIZE + (long) rowCount * ROW_SIZE != dictionaryOffset
+                || bytesOffset > buffer.capacity()
+                || bytesOffset + buffer.getInt((int) dictionaryOffset + dictionaryCount * Integer.BYTES) != buffer.capacity()) {
+            throw new IOException("corrupted member snapshot: " + file);
+        }
+        return new MemberSnapshot(buffer, rowCount, dictionaryCount, createdAt, (int) dictionaryOffset);
+    }
+
+    /**
+     * file 옆에 임시 파일로 쓰고 commit 할 때 file 로 옮긴다. 읽는 쪽은 이전 스냅샷이나 완성된 스냅샷만 본다.
+     */
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * 스냅샷을 만든 시각 (epoch millis)
+     */
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public long memberId(int row) {
+        return buffer.getLong(rowOffset(row));
+    }
+
+    public Long teamId(int row) {
+        long teamId = buffer.getLong(rowOffset(row) + 8);
+        return teamId == NONE ? null : teamId;
+    }
+
+    public int age(int row) {
+        return buffer.getInt(rowOffset(row) + 16);
+    }
+
+    public String username(int row) {
+        return string(buffer.getInt(rowOffset(row) + 20));
+    }
+
+    public String teamName(int row) {
+        return string(buffer.getInt(rowOffset(row) + 24));
+    }
+
+    public MemberTeamDto toDto(int row) {
+        return new MemberTeamDto(memberId(row), username(row), age(row), teamId(row), teamName(row));
+    }
+
+    private int rowOffset(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + rowCount);
+        }
+        return HEADER_SIZE + row * ROW_SIZE;
+    }
+
+    private String string(int index) {
+        if (index == NONE) {
+            return null;
+        }
+        if (index < 0 || index >= dictionaryCount) {
+            throw new IllegalStateException("corrupted member snapshot: dictionary index " + index);
+        }
+        String value = decoded[index];
+        if (value == null) {
+            int start = buffer.getInt(dictionaryOffset + index * Integer.BYTES);
+            int end = buffer.getInt(dictionaryOffset + (index + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(bytesOffset + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    public static final class Writer implements AutoCloseable {
+
+        private final Path file;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer rows = ByteBuffer.allocateDirect(ROW_SIZE * 2048).order(ByteOrder.LITTLE_ENDIAN);
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int rowCount;
+        private boolean committed;
+
+        private Writer(Path file) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            this.file = file;
+            this.temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            this.channel.position(HEADER_SIZE);
+        }
+
+        public void add(Long memberId, String username, int age, Long teamId, String teamName) throws IOException {
+            if (rowCount == Integer.MAX_VALUE || HEADER_SIZE + (rowCount + 1L) * ROW_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("member snapshot is limited to 2GB");
+            }
+            if (!rows.hasRemaining()) {
+                flushRows();
+            }
+            rows.putLong(memberId);
+            rows.putLong(teamId == null ? NONE : teamId);
+            rows.putInt(age);
+            rows.putInt(stringIndex(username));
+            rows.putInt(stringIndex(teamName));
+            rowCount++;
+        }
+
+        public void commit() throws IOException {
+            flushRows();
+            long dictionaryOffset = channel.position();
+
+            ByteBuffer offsets = ByteBuffer.allocate((strings.size() + 1) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int position = 0;
+            for (byte[] bytes : strings) {
+                offsets.putInt(position);
+                position += bytes.length;
+            }
+            offsets.putInt(position);
+            if (dictionaryOffset + offsets.capacity() + position > Integer.MAX_VALUE) {
+                throw new IOException("member snapshot is limited to 2GB");
+            }
+            writeFully(offsets.flip());
+            for (byte[] bytes : strings) {
+                writeFully(ByteBuffer.wrap(bytes));
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(rowCount)
+                    .putInt(strings.size())
+                    .putLong(System.currentTimeMillis())
+                    .putLong(dictionaryOffset);
+            channel.position(0);
+            writeFully(header.flip());
+            channel.force(false);
+            channel.close();
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (!committed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private int stringIndex(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = strings.size();
+                dictionary.put(value, index);
+                strings.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        private void flushRows() throws IOException {
+            writeFully(rows.flip());
+            rows.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.repository.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 동시에 들어온 호출을 하나로 합친다. 먼저 온 호출이 loader 를 실행하고, 그 사이에 온 호출은 그 결과를 같이 받는다.
+ * 끝난 결과는 보관하지 않는다. (캐시가 아니라 실행 중인 호출만 공유한다)
+ * 같은 객체를 여러 요청이 받으므로 결과를 수정하지 않는 곳에서만 쓴다.
+ */
+public class SingleFlight<K, V> {
+
+    private final BooleanSupplier enabled;
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(BooleanSupplier enabled) {
+        this.enabled = enabled;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (!enabled.getAsBoolean()) {
+            return loader.get();
+        }
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            shared.increment();
+            return join(inFlight);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // 기다리던 호출도 같은 예외를 받는다.
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * 실행 중인 호출을 목록에서 뺀다. 이후에 오는 호출은 기존 호출을 기다리지 않고 새로 실행한다.
+     * 대상 테이블에 쓰기가 있었을 때 쓰기 전에 시작된 조회 결과를 받지 않도록 호출한다.
+     */
+    public void forgetAll() {
+        calls.clear();
+    }
+
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
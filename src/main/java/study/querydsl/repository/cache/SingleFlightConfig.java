@@ -0,0 +1,44 @@
+package study.querydsl.repository.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<MemberSearchRequestKey, List<MemberTeamDto>> memberSearchFlight(
+            SingleFlightProperties properties, TableWriteInspector inspector, MeterRegistry registry) {
+        return register("member.search", new SingleFlight<>(properties::isEnabled), inspector, registry);
+    }
+
+    @Bean
+    public SingleFlight<MemberSearchRequestKey, Page<MemberTeamDto>> memberPageFlight(
+            SingleFlightProperties properties, TableWriteInspector inspector, MeterRegistry registry) {
+        return register("member.searchPage", new SingleFlight<>(properties::isEnabled), inspector, registry);
+    }
+
+    private static <K, V> SingleFlight<K, V> register(String name, SingleFlight<K, V> flight,
+                                                      TableWriteInspector inspector, MeterRegistry registry) {
+        // member / team 에 쓰기가 있으면 그 전에 시작된 조회는 더 이상 공유하지 않는다.
+        inspector.addListener("member", flight::forgetAll);
+        inspector.addListener("team", flight::forgetAll);
+
+        // querydsl.single-flight (tags: name, result=executed|shared)
+        FunctionCounter.builder("querydsl.single-flight", flight, SingleFlight::executedCount)
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("querydsl.single-flight", flight, SingleFlight::sharedCount)
+                .tag("name", name)
+                .tag("result", "shared")
+                .register(registry);
+        return flight;
+    }
+}
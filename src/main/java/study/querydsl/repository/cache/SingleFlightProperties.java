@@ -0,0 +1,15 @@
+package study.querydsl.repository.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * true 이면 /v1~/v3/members 에 같은 조건으로 동시에 들어온 요청이 DB 조회 한 번의 결과를 같이 받는다.
+     */
+    private boolean enabled = true;
+}
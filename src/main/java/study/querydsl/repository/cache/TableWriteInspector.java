@@ -0,0 +1,120 @@
+package study.querydsl.repository.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate 가 실행하는 모든 SQL 을 보고 insert/update/delete 대상 테이블을 listener 에게 알려준다.
+ * em.persist 뿐 아니라 update(member)...execute() 같은 bulk 연산도 영속성 컨텍스트를 거치지 않고
+ * 여기로는 지나가기 때문에 캐시 무효화 지점으로 쓴다.
+ * StatementInspector 는 하나만 등록할 수 있으므로 실행된 SQL 을 모으는 기능(capture)도 여기에 둔다.
+ */
+@Component
+public class TableWriteInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert\\s+into|update|delete\\s+from|delete)\\s+(?:\\w+\\.)?(\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // 엔티티 하나를 PK 로 바꾸는 문장(em.persist / dirty checking / em.remove 가 만드는 SQL).
+    // 이 모양이 아니면 bulk 연산으로 본다.
+    private static final Pattern ENTITY_STATEMENT = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:"
+                    + "insert\\s+into\\s+(?:\\w+\\.)?\\w+\\s*\\([^)]*\\)\\s*values\\s*\\(.*\\)"
+                    + "|(?:update\\s+(?:\\w+\\.)?\\w+\\s+set\\s+.*?|delete\\s+from\\s+(?:\\w+\\.)?\\w+)"
+                    + "\\s+where\\s+\\w+\\s*=\\s*\\?(?:\\s+and\\s+\\w+\\s*=\\s*\\?)*"
+                    + ")\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, List<Runnable>> bulkListeners = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public void addListener(String table, Runnable listener) {
+        listeners.computeIfAbsent(table.toLowerCase(Locale.ROOT), t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 영속성 컨텍스트를 거치지 않는 bulk 문장(update(member)...execute() 등)이 table 에 쓸 때만 호출된다.
+     * 엔티티 단위 변경은 entity listener 로 따라갈 수 있는 경우에 쓴다.
+     */
+    public void addBulkListener(String table, Runnable listener) {
+        bulkListeners.computeIfAbsent(table.toLowerCase(Locale.ROOT), t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 현재 thread 에서 work 를 실행하는 동안 Hibernate 가 실행한 SQL 을 순서대로 반환한다.
+     */
+    public List<String> capture(Runnable work) {
+        List<String> previous = captured.get();
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            work.run();
+        } finally {
+            if (previous == null) {
+                captured.remove();
+            } else {
+                captured.set(previous);
+            }
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = captured.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        Matcher matcher = WRITE_STATEMENT.matcher(sql);
+        if (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            List<Runnable> tableListeners = listeners.get(table);
+            if (tableListeners != null) {
+                notifyListeners(tableListeners);
+            }
+            List<Runnable> tableBulkListeners = bulkListeners.get(table);
+            if (tableBulkListeners != null && !ENTITY_STATEMENT.matcher(sql).matches()) {
+                notifyListeners(tableBulkListeners);
+            }
+        }
+        return sql;
+    }
+
+    private void notifyListeners(List<Runnable> tableListeners) {
+        tableListeners.forEach(Runnable::run);
+
+        // commit/rollback 전까지 다른 트랜잭션은 변경 전 값을 보고 캐시를 채울 수 있으므로 종료 시점에 한 번 더 알린다.
+        // 테이블별 listener 목록을 resource key 로 써서 트랜잭션당 한 번만 등록한다.
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(tableListeners)) {
+            TransactionSynchronizationManager.bindResource(tableListeners, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(tableListeners);
+                    tableListeners.forEach(Runnable::run);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+}
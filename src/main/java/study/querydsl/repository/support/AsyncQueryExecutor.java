@@ -0,0 +1,96 @@
+package study.querydsl.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.ReplicaDataSources;
+import study.querydsl.config.VirtualThreadProperties;
+import study.querydsl.config.VirtualThreads;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * repository 조회를 요청 thread 밖에서 읽기 전용 트랜잭션으로 실행한다.
+ * DB 를 동시에 쓰는 작업 수는 semaphore(dbPermits)로 제한하므로 커넥션 수보다 많은 요청을 받아도
+ * 커넥션을 기다리며 thread 가 고갈되지 않는다.
+ * permit 은 작업을 넘기기 전에 호출한 thread 에서 기다리지 않고 얻는다. executor 의 queue 에는 permit 을 가진 작업만
+ * 들어가므로 대기열이 dbPermits 를 넘지 않고, 남은 permit 이 없으면 요청 thread 를 붙잡지 않고 바로 실패한 future 를 돌려준다.
+ */
+@Slf4j
+@Component
+public class AsyncQueryExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final TransactionTemplate readOnlyTx;
+
+    public AsyncQueryExecutor(AsyncQueryProperties properties, VirtualThreadProperties virtualThreadProperties,
+                              PlatformTransactionManager transactionManager, DataSource dataSource,
+                              ObjectProvider<ReplicaDataSources> replicaDataSources) {
+        this.executor = VirtualThreads.newExecutor(virtualThreadProperties.isEnabled(), properties.getThreads(), "async-query-");
+        // replica 라우팅이 켜져 있으면 DataSource 는 LazyConnectionDataSourceProxy 라서 pool 을 직접 꺼낼 수 없다.
+        // replica 가 모두 빠지면 읽기도 primary 로 가므로 primary pool 크기에 맞춘다.
+        ReplicaDataSources replicas = replicaDataSources.getIfAvailable();
+        DataSource pool = replicas != null ? replicas.getPrimary() : dataSource;
+        this.permits = new Semaphore(dbPermits(properties.getDbPermits(), pool));
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // 커넥션보다 permit 이 많으면 남는 작업은 어차피 pool 에서 대기하므로 pool 크기에 맞춘다.
+    private static int dbPermits(int requested, DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                if (requested > poolSize) {
+                    log.warn("querydsl.async.db-permits ({}) is larger than the connection pool ({}), using {}", requested, poolSize, poolSize);
+                    return poolSize;
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("cannot unwrap data source", e);
+        }
+        return requested;
+    }
+
+    // 요청 thread 가 permit 을 기다리면 비동기로 넘기는 의미가 없으므로 남은 permit 이 없으면 바로 실패시킨다.
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new TransientDataAccessResourceException("All DB permits are in use"));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readOnlyTx.execute(status -> query.get());
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
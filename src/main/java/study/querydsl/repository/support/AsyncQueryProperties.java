@@ -0,0 +1,20 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.async")
+public class AsyncQueryProperties {
+
+    /**
+     * 동시에 DB 를 사용할 수 있는 작업 수. 커넥션 pool 크기를 넘지 않게 잡는다.
+     */
+    private int dbPermits = 10;
+
+    /**
+     * 비동기 조회를 실행하는 thread 수. permit 을 얻은 작업만 넘어오므로 db-permits 보다 크게 잡을 필요는 없다.
+     */
+    private int threads = 20;
+}
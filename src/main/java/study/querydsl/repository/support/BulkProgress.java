@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 분할 bulk 실행의 진행 상황 스냅샷.
+ */
+@Getter
+@ToString
+public class BulkProgress {
+
+    private final String name;
+    private final int completedChunks;
+    private final int totalChunks;
+    private final long rows;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public BulkProgress(String name, int completedChunks, int totalChunks, long rows, long elapsedMillis) {
+        this.name = name;
+        this.completedChunks = completedChunks;
+        this.totalChunks = totalChunks;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    public double getPercent() {
+        return totalChunks == 0 ? 100.0 : completedChunks * 100.0 / totalChunks;
+    }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC 결과를 row 객체(Tuple, Object[]) 없이 컬럼별 primitive 배열로 모으기 위한 가변 길이 컬럼.
+ * 값마다 boxing 하지 않으므로 row 수가 많아도 할당은 배열 확장 몇 번으로 끝난다.
+ */
+public final class Columns {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Columns() {
+    }
+
+    public static final class LongColumn {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size;
+
+        public void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class IntColumn {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class DoubleColumn {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size;
+
+        public void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 중복이 많은 문자열(팀 이름 등)을 사전 번호(int)로 저장한다. null 은 -1.
+     * 같은 문자열은 사전에 한 번만 들어가므로 row 마다 String 을 들고 있지 않는다.
+     */
+    public static final class DictionaryColumn {
+
+        public static final int NULL_CODE = -1;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final IntColumn values = new IntColumn();
+
+        public void add(String value) {
+            values.add(value == null ? NULL_CODE : codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            }));
+        }
+
+        public int[] codes() {
+            return values.toArray();
+        }
+
+        public String[] dictionary() {
+            return dictionary.toArray(new String[0]);
+        }
+    }
+}
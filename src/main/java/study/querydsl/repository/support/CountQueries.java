@@ -0,0 +1,200 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * content 쿼리로부터 count 쿼리를 만든다.
+ * <ul>
+ *     <li>order by, projection, fetch join 은 건수에 영향이 없으므로 버린다.</li>
+ *     <li>where/having/group by 에서 참조하지 않는 to-one left join 도 건수를 바꿀 수 없으므로 버린다.</li>
+ * </ul>
+ * inner join, 컬렉션 join, distinct 쿼리는 건수를 바꿀 수 있으므로 그대로 둔다.
+ */
+public final class CountQueries {
+
+    private CountQueries() {
+    }
+
+    public static JPAQuery<?> derive(EntityManager em, JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        if (source.isDistinct() || source.getJoins().isEmpty()) {
+            return contentQuery;
+        }
+
+        Metamodel metamodel = em.getMetamodel();
+        List<JoinExpression> joins = source.getJoins();
+
+        Set<Expression<?>> referenced = new HashSet<>();
+        collectRoots(source.getWhere(), referenced);
+        collectRoots(source.getHaving(), referenced);
+        source.getGroupBy().forEach(groupBy -> collectRoots(groupBy, referenced));
+
+        // 뒤의 join 이 앞의 alias 를 참조할 수 있으므로 역순으로 필요한 join 을 고른다.
+        boolean[] keep = new boolean[joins.size()];
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (i > 0 && isDroppable(join, referenced, metamodel)) {
+                continue;
+            }
+            keep[i] = true;
+            collectRoots(join.getTarget(), referenced);
+            collectRoots(join.getCondition(), referenced);
+        }
+
+        DefaultQueryMetadata metadata = new DefaultQueryMetadata();
+        for (int i = 0; i < joins.size(); i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            JoinExpression join = joins.get(i);
+            metadata.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                metadata.addJoinCondition(join.getCondition());
+            }
+        }
+        if (source.getWhere() != null) {
+            metadata.addWhere(source.getWhere());
+        }
+        source.getGroupBy().forEach(metadata::addGroupBy);
+        if (source.getHaving() != null) {
+            metadata.addHaving(source.getHaving());
+        }
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            setParam(metadata, param.getKey(), param.getValue());
+        }
+
+        Expression<?> id = idPathOf(joins.get(0).getTarget(), metamodel);
+        if (id != null) {
+            metadata.setProjection(id);
+        }
+        return new JPAQuery<>(em, metadata);
+    }
+
+    private static boolean isDroppable(JoinExpression join, Set<Expression<?>> referenced, Metamodel metamodel) {
+        if (join.getType() != JoinType.LEFTJOIN || !(join.getTarget() instanceof Operation<?> alias)
+                || alias.getOperator() != Ops.ALIAS) {
+            return false;
+        }
+        if (referenced.contains(alias.getArg(1))) {
+            return false;
+        }
+        return alias.getArg(0) instanceof Path<?> association && isToOne(association, metamodel);
+    }
+
+    private static boolean isToOne(Path<?> association, Metamodel metamodel) {
+        PathMetadata pathMetadata = association.getMetadata();
+        if (pathMetadata.getParent() == null || pathMetadata.getPathType() != PathType.PROPERTY) {
+            return false;
+        }
+        try {
+            Attribute<?, ?> attribute = metamodel.managedType(pathMetadata.getParent().getType())
+                    .getAttribute(pathMetadata.getName());
+            return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                    || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ONE_TO_ONE;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // select count(member) 대신 select count(member.id) 가 되도록 root 의 id 를 projection 으로 둔다.
+    private static Expression<?> idPathOf(Expression<?> from, Metamodel metamodel) {
+        if (!(from instanceof Path<?> root)) {
+            return null;
+        }
+        try {
+            EntityType<?> entityType = metamodel.entity(root.getType());
+            if (!entityType.hasSingleIdAttribute()) {
+                return null;
+            }
+            SingularAttribute<?, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+            return Expressions.path(id.getJavaType(), root, id.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void setParam(DefaultQueryMetadata metadata, ParamExpression<T> param, Object value) {
+        metadata.setParam(param, (T) value);
+    }
+
+    private static void collectRoots(Expression<?> expression, Set<Expression<?>> roots) {
+        if (expression != null) {
+            expression.accept(RootCollector.INSTANCE, roots);
+        }
+    }
+
+    private enum RootCollector implements Visitor<Void, Set<Expression<?>>> {
+        INSTANCE;
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> roots) {
+            expr.getArgs().forEach(arg -> collectRoots(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> roots) {
+            expr.getArgs().forEach(arg -> collectRoots(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        // 상관 subquery 가 바깥 alias 를 참조하는 경우
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            collectRoots(metadata.getProjection(), roots);
+            collectRoots(metadata.getWhere(), roots);
+            collectRoots(metadata.getHaving(), roots);
+            metadata.getGroupBy().forEach(groupBy -> collectRoots(groupBy, roots));
+            for (JoinExpression join : metadata.getJoins()) {
+                collectRoots(join.getTarget(), roots);
+                collectRoots(join.getCondition(), roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression<?> expression) {
+                    collectRoots(expression, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
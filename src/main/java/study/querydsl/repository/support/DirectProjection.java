@@ -0,0 +1,55 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * row 값(Object[])을 DirectProjections 가 만든 factory 로 DTO 로 바꾸는 projection.
+ * 쿼리(JPQL) 쪽에서는 Projections.bean / fields / constructor 와 똑같이 args 만 select 된다.
+ */
+public class DirectProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final Function<Object[], ? extends T> factory;
+
+    DirectProjection(Class<? extends T> type, List<Expression<?>> args, Function<Object[], ? extends T> factory) {
+        super(type);
+        this.args = args;
+        this.factory = factory;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... values) {
+        return factory.apply(values);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DirectProjection<?> other)) {
+            return false;
+        }
+        return getType().equals(other.getType()) && args.equals(other.args) && factory == other.factory;
+    }
+
+    @Override
+    public int hashCode() {
+        return getType().hashCode() * 31 + args.hashCode();
+    }
+}
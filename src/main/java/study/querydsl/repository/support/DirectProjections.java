@@ -0,0 +1,257 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / fields / constructor 와 같은 사용법이지만 row 마다 reflection 을 쓰지 않는다.
+ * DTO 타입과 프로퍼티 이름 조합별로 처음 한 번만 생성자/setter 를 LambdaMetafactory(안 되면 MethodHandle)로 연결하고
+ * 이후에는 만들어 둔 factory 를 재사용한다.
+ * <pre>
+ * queryFactory.select(DirectProjections.fields(UserDto.class, member.username.as("name"), member.age))
+ * </pre>
+ */
+public final class DirectProjections {
+
+    private static final Map<List<Object>, Function<Object[], ?>> FACTORIES = new ConcurrentHashMap<>();
+
+    private DirectProjections() {
+    }
+
+    /**
+     * 기본 생성자 + setter. (Projections.bean)
+     */
+    public static <T> DirectProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        return projection(type, exprs, List.of("bean", type, names), () -> beanFactory(type, names, false));
+    }
+
+    /**
+     * 기본 생성자 + 필드 직접 대입. (Projections.fields)
+     */
+    public static <T> DirectProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        return projection(type, exprs, List.of("fields", type, names), () -> beanFactory(type, names, true));
+    }
+
+    /**
+     * 인자 타입이 맞는 생성자. (Projections.constructor)
+     */
+    public static <T> DirectProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Class<?>> argTypes = Arrays.stream(exprs).<Class<?>>map(Expression::getType).toList();
+        return projection(type, exprs, List.of("constructor", type, argTypes), () -> constructorFactory(type, argTypes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> DirectProjection<T> projection(Class<? extends T> type, Expression<?>[] exprs, List<Object> key,
+                                                      Supplier<Function<Object[], ?>> factory) {
+        Function<Object[], ?> cached = FACTORIES.computeIfAbsent(key, k -> factory.get());
+        return new DirectProjection<>(type, List.of(exprs), (Function<Object[], ? extends T>) cached);
+    }
+
+    // member.username -> "username", member.username.as("name") -> "name"
+    private static List<String> propertyNames(Expression<?>[] exprs) {
+        List<String> names = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+                names.add(((Path<?>) operation.getArg(1)).getMetadata().getName());
+            } else if (expr instanceof Path<?> path) {
+                names.add(path.getMetadata().getName());
+            } else {
+                throw new IllegalArgumentException("Unsupported expression " + expr + ", use as(\"name\") to name it");
+            }
+        }
+        return names;
+    }
+
+    private static <T> Function<Object[], T> beanFactory(Class<T> type, List<String> names, boolean fieldAccess) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Supplier<T> instantiator = instantiator(lookup, type);
+            @SuppressWarnings("unchecked")
+            BiConsumer<T, Object>[] setters = new BiConsumer[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                setters[i] = fieldAccess ? fieldSetter(lookup, type, names.get(i)) : propertySetter(lookup, type, names.get(i));
+            }
+
+            return values -> {
+                T bean = instantiator.get();
+                for (int i = 0; i < setters.length; i++) {
+                    // Projections.bean 처럼 null 은 건너뛰어서 primitive 필드는 기본값을 유지한다.
+                    if (values[i] != null) {
+                        setters[i].accept(bean, values[i]);
+                    }
+                }
+                return bean;
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create projection for " + type.getName(), e);
+        }
+    }
+
+    private static <T> Function<Object[], T> constructorFactory(Class<T> type, List<Class<?>> argTypes) {
+        Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                .filter(c -> assignable(c.getParameterTypes(), argTypes))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No constructor of " + type.getName() + " accepts " + argTypes));
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            int arity = argTypes.size();
+            MethodHandle handle = lookup.unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(arity))
+                    .asSpreader(Object[].class, arity);
+
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] defaults = new Object[arity];
+            boolean hasPrimitive = false;
+            for (int i = 0; i < arity; i++) {
+                if (parameterTypes[i].isPrimitive()) {
+                    defaults[i] = MethodHandles.zero(parameterTypes[i]).invoke();
+                    hasPrimitive = true;
+                }
+            }
+            boolean replaceNulls = hasPrimitive;
+
+            return values -> {
+                if (replaceNulls) {
+                    values = primitiveDefaults(values, defaults);
+                }
+                try {
+                    @SuppressWarnings("unchecked")
+                    T instance = (T) handle.invokeExact(values);
+                    return instance;
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot create projection for " + type.getName(), e);
+        }
+    }
+
+    // primitive 생성자 인자에 null 이 오면 기본값(0, false)을 넣는다.
+    private static Object[] primitiveDefaults(Object[] values, Object[] defaults) {
+        Object[] result = values;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null && defaults[i] != null) {
+                if (result == values) {
+                    result = values.clone();
+                }
+                result[i] = defaults[i];
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> instantiator(MethodHandles.Lookup lookup, Class<T> type) throws ReflectiveOperationException {
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    constructor, MethodType.methodType(type));
+            return (Supplier<T>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = constructor.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) generic.invokeExact();
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BiConsumer<T, Object> propertySetter(MethodHandles.Lookup lookup, Class<T> type, String name)
+            throws ReflectiveOperationException {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        Method setter = Arrays.stream(type.getMethods())
+                .filter(m -> m.getName().equals(setterName) && m.getParameterCount() == 1)
+                .findFirst()
+                .orElseThrow(() -> new NoSuchMethodException(type.getName() + "." + setterName));
+        MethodHandle handle = lookup.unreflect(setter);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, wrap(setter.getParameterTypes()[0])));
+            return (BiConsumer<T, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return handleSetter(handle);
+        }
+    }
+
+    private static <T> BiConsumer<T, Object> fieldSetter(MethodHandles.Lookup lookup, Class<T> type, String name)
+            throws ReflectiveOperationException {
+        Field field = findField(type, name);
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+            throw new IllegalArgumentException("Field " + field + " is static or final");
+        }
+        return handleSetter(lookup.unreflectSetter(field));
+    }
+
+    private static <T> BiConsumer<T, Object> handleSetter(MethodHandle handle) {
+        MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                generic.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // 상위 클래스에서 찾는다.
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + name);
+    }
+
+    private static boolean assignable(Class<?>[] parameterTypes, List<Class<?>> argTypes) {
+        if (parameterTypes.length != argTypes.size()) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!wrap(parameterTypes[i]).isAssignableFrom(wrap(argTypes.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+}
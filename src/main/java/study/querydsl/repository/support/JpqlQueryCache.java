@@ -0,0 +1,99 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 동적 쿼리의 "모양"(어떤 조건이 들어갔는지)별로 직렬화된 JPQL 을 재사용한다.
+ * 값은 {@link com.querydsl.core.types.dsl.Param} 으로 비워두고 실행할 때마다 바인딩만 한다.
+ * 같은 JPQL 문자열은 Hibernate 의 query plan cache 에서도 그대로 hit 되므로 HQL 파싱도 다시 하지 않는다.
+ */
+@Slf4j
+public class JpqlQueryCache<K> {
+
+    private final Map<K, CompiledQuery<?>> queries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public <T> CompiledQuery<T> get(K shape, EntityManager em, Supplier<JPAQuery<T>> template) {
+        CompiledQuery<T> query = (CompiledQuery<T>) queries.get(shape);
+        if (query != null) {
+            hits.incrementAndGet();
+            return query;
+        }
+        misses.incrementAndGet();
+        return (CompiledQuery<T>) queries.computeIfAbsent(shape, key -> compile(key, em, template.get()));
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    private <T> CompiledQuery<T> compile(K shape, EntityManager em, JPAQuery<T> template) {
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(template.getMetadata(), false, null);
+        String jpql = serializer.toString();
+        log.debug("compiled query shape {}: {}", shape, jpql);
+
+        @SuppressWarnings("unchecked")
+        Expression<T> projection = (Expression<T>) template.getMetadata().getProjection();
+        return new CompiledQuery<>(jpql, List.copyOf(serializer.getConstants()), projection);
+    }
+
+    public static class CompiledQuery<T> {
+
+        private final String jpql;
+        private final List<Object> constants;
+        private final Expression<T> projection;
+
+        CompiledQuery(String jpql, List<Object> constants, Expression<T> projection) {
+            this.jpql = jpql;
+            this.constants = constants;
+            this.projection = projection;
+        }
+
+        public String getJpql() {
+            return jpql;
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<T> fetch(EntityManager em, Map<ParamExpression<?>, Object> params) {
+            Query query = em.createQuery(jpql);
+            JPAUtil.setConstants(query, constants, params);
+            List<?> rows = query.getResultList();
+
+            if (!(projection instanceof FactoryExpression<T> factory)) {
+                return (List<T>) rows;
+            }
+            List<T> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                result.add(row instanceof Object[] args ? factory.newInstance(args) : factory.newInstance(row));
+            }
+            return result;
+        }
+    }
+}
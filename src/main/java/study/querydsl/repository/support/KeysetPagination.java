@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.dto.CursorPage;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * offset 없이 "id > 마지막 id order by id limit size" 로 페이지를 조회한다.
+ * PK index를 타고 바로 시작 위치로 이동하므로 N번째 페이지도 첫 페이지와 비용이 같다.
+ */
+public final class KeysetPagination {
+
+    private KeysetPagination() {
+    }
+
+    public static <T> CursorPage<T> fetch(JPAQuery<T> query, NumberPath<Long> idPath, Function<T, Long> idExtractor,
+                                          String cursor, int size) {
+        if (size <= 0) {
+            throw new InvalidPageSizeException(size);
+        }
+
+        Long lastId = KeysetCursor.decode(cursor);
+        if (lastId != null) {
+            query.where(idPath.gt(lastId));
+        }
+
+        // 다음 페이지 존재 여부는 count 쿼리 대신 한 건 더 조회해서 판단한다.
+        List<T> rows = query
+                .orderBy(idPath.asc())
+                .limit(size + 1L)
+                .fetch();
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+
+        List<T> content = rows.subList(0, size);
+        String nextCursor = KeysetCursor.encode(idExtractor.apply(content.get(size - 1)));
+        return new CursorPage<>(content, size, nextCursor);
+    }
+
+    // 잘못된 cursor(KeysetCursor.InvalidCursorException)와 같이 client 의 잘못이다. controller 에서 400 으로 응답한다.
+    public static class InvalidPageSizeException extends IllegalArgumentException {
+        public InvalidPageSizeException(int size) {
+            super("Page size must be greater than zero: " + size);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.pagination")
+public class PaginationProperties {
+
+    /**
+     * true 이면 applyPagination 의 count 쿼리를 별도 EntityManager(커넥션)에서 content 쿼리와 동시에 실행한다.
+     * 별도 커넥션이므로 현재 트랜잭션에서 아직 commit 되지 않은 변경은 count 에 반영되지 않는다.
+     */
+    private boolean parallelCount = false;
+
+    /**
+     * count 쿼리를 기다리는 최대 시간. DB 쪽에도 query timeout 힌트로 전달된다.
+     */
+    private Duration countTimeout = Duration.ofSeconds(3);
+
+    /**
+     * count 전용 thread 수. 동시에 점유할 수 있는 커넥션 수와 같으므로 pool 크기보다 작게 잡는다.
+     */
+    private int countThreads = 4;
+}
@@ -0,0 +1,139 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.ReplicaRoutingDataSource;
+import study.querydsl.config.VirtualThreadProperties;
+import study.querydsl.config.VirtualThreads;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * count 쿼리를 content 쿼리와 동시에 실행한다.
+ * 요청 thread 의 EntityManager 는 thread-safe 하지 않으므로 count 는 항상 새 EntityManager 에서 실행한다.
+ * virtual thread executor 는 작업마다 thread 를 만들어 개수 제한이 없으므로, 동시에 실행되는 count 는
+ * semaphore(count-threads)로 제한한다.
+ */
+@Component
+public class ParallelCountExecutor {
+
+    private static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private final EntityManagerFactory emf;
+    private final PaginationProperties properties;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public ParallelCountExecutor(EntityManagerFactory emf, PaginationProperties properties,
+                                 VirtualThreadProperties virtualThreadProperties) {
+        this.emf = emf;
+        this.properties = properties;
+        this.executor = VirtualThreads.newExecutor(virtualThreadProperties.isEnabled(), properties.getCountThreads(), "count-query-");
+        this.permits = new Semaphore(properties.getCountThreads(), true);
+    }
+
+    public boolean isEnabled() {
+        return properties.isParallelCount();
+    }
+
+    /**
+     * 전달된 쿼리에서 {@link CountQueries#derive} 로 count 쿼리를 만들어 실행한다.
+     */
+    public CountFuture submit(Function<JPAQueryFactory, JPAQuery> query) {
+        long timeoutMillis = properties.getCountTimeout().toMillis();
+        // count 는 content 와 같은 곳에서 읽어야 total 이 맞는다. 요청 thread 가 primary 를 쓰면 primary 로,
+        // 읽기 전용이면 content 조회와 pin 을 공유해서 같은 replica 로 보낸다.
+        ReplicaRoutingDataSource.Pin pin = ReplicaRoutingDataSource.currentPin();
+        CompletableFuture<Long> future = CompletableFuture.supplyAsync(() -> {
+            acquirePermit(timeoutMillis);
+            try {
+                return pin == null
+                        ? count(query, timeoutMillis)
+                        : ReplicaRoutingDataSource.readOnly(pin, () -> count(query, timeoutMillis));
+            } finally {
+                permits.release();
+            }
+        }, executor);
+        return new CountFuture(future, timeoutMillis);
+    }
+
+    private long count(Function<JPAQueryFactory, JPAQuery> query, long timeoutMillis) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            JPAQuery<?> countQuery = CountQueries.derive(em, query.apply(new JPAQueryFactory(em)));
+            countQuery.setHint(TIMEOUT_HINT, timeoutMillis);
+            return countQuery.fetchCount();
+        } finally {
+            em.close();
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquirePermit(long timeoutMillis) {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new QueryTimeoutException("No count permit available within " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for count permit", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static class CountFuture implements LongSupplier {
+
+        private final CompletableFuture<Long> future;
+        private final long timeoutMillis;
+
+        CountFuture(CompletableFuture<Long> future, long timeoutMillis) {
+            this.future = future;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public long getAsLong() {
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new QueryTimeoutException("Count query did not finish within " + timeoutMillis + "ms", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new IllegalStateException("Interrupted while waiting for count query", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /**
+         * PageableExecutionUtils 가 count 가 필요 없다고 판단한 경우(마지막 페이지 등) 결과를 버린다.
+         */
+        public void cancel() {
+            future.cancel(true);
+        }
+    }
+}
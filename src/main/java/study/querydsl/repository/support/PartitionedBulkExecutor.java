@@ -0,0 +1,156 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.config.VirtualThreadProperties;
+import study.querydsl.config.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * id 구간을 chunk 로 나눠 chunk 마다 짧은 트랜잭션(REQUIRES_NEW)으로 여러 thread 에서 동시에 실행한다.
+ * 한 문장으로 전체를 바꾸면 트랜잭션이 끝날 때까지 모든 row lock 을 잡고 있지만,
+ * chunk 단위로 커밋하면 lock 을 잡는 시간이 chunk 하나 분량으로 줄고 여러 커넥션으로 나눠 처리할 수 있다.
+ *
+ * parallelism 개의 worker 가 다음 chunk 번호를 하나씩 가져가 실행하므로 chunk 가 많아도 작업을 미리 쌓아두지 않는다.
+ * chunk 는 각각 커밋되므로 중간에 실패하면 이미 끝난 chunk 의 변경은 남고, 남은 chunk 는 실행하지 않는다.
+ */
+@Slf4j
+@Component
+public class PartitionedBulkExecutor {
+
+    private final PartitionedBulkProperties properties;
+    private final TransactionTemplate requiresNewTx;
+    private final ExecutorService executor;
+
+    public PartitionedBulkExecutor(PartitionedBulkProperties properties, VirtualThreadProperties virtualThreadProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // 동시 실행 수는 worker 수(parallelism)로 제한되므로 virtual thread 모드에서도 커넥션을 넘겨 쓰지 않는다.
+        this.executor = virtualThreadProperties.isEnabled()
+                ? VirtualThreads.newPerTaskExecutor("bulk-")
+                : new ForkJoinPool(properties.getParallelism());
+    }
+
+    public PartitionedBulkProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * [minId, maxId] 를 chunkSize 구간으로 나눠 statement(fromId, toId) 를 실행한다.
+     *
+     * @param listener chunk 가 끝날 때마다 worker thread 에서 호출된다. null 이면 로그만 남긴다.
+     */
+    public BulkProgress execute(String name, long minId, long maxId, int chunkSize, int parallelism,
+                                ChunkStatement statement, Consumer<BulkProgress> listener) {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero!");
+        Assert.isTrue(parallelism > 0, "Parallelism must be greater than zero!");
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Partitioned bulk statements run in their own transactions and must not be called inside a transaction");
+
+        int totalChunks = totalChunks(minId, maxId, chunkSize);
+        long start = System.nanoTime();
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicInteger completedChunks = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+        AtomicLong lastLogged = new AtomicLong(start);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long logIntervalNanos = properties.getProgressLogInterval().toNanos();
+
+        Runnable worker = () -> {
+            int chunk;
+            while (failure.get() == null && (chunk = nextChunk.getAndIncrement()) < totalChunks) {
+                long from = minId + (long) chunk * chunkSize;
+                long to = from > maxId - (chunkSize - 1) ? maxId : from + chunkSize - 1;
+                try {
+                    Long updated = requiresNewTx.execute(status -> statement.execute(from, to));
+                    rows.addAndGet(updated == null ? 0 : updated);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    return;
+                }
+
+                BulkProgress progress = new BulkProgress(name, completedChunks.incrementAndGet(), totalChunks,
+                        rows.get(), (System.nanoTime() - start) / 1_000_000);
+                if (listener != null) {
+                    listener.accept(progress);
+                }
+                long now = System.nanoTime();
+                long last = lastLogged.get();
+                if (now - last >= logIntervalNanos && lastLogged.compareAndSet(last, now)) {
+                    log.info("bulk {}: {}/{} chunks ({}%), {} rows, {} rows/s", name, progress.getCompletedChunks(),
+                            totalChunks, String.format("%.1f", progress.getPercent()), progress.getRows(),
+                            String.format("%.0f", progress.getRowsPerSecond()));
+                }
+            }
+        };
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, Math.max(totalChunks, 1)); i++) {
+            workers.add(CompletableFuture.runAsync(worker, executor));
+        }
+        try {
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            failure.compareAndSet(null, e);
+        }
+
+        BulkProgress result = new BulkProgress(name, completedChunks.get(), totalChunks, rows.get(),
+                (System.nanoTime() - start) / 1_000_000);
+        if (failure.get() != null) {
+            log.warn("bulk {} failed after {}/{} chunks, {} rows already committed", name,
+                    result.getCompletedChunks(), totalChunks, result.getRows());
+            throw failure.get();
+        }
+        log.info("bulk {} done: {} chunks, {} rows in {}ms ({} rows/s)", name, totalChunks, result.getRows(),
+                result.getElapsedMillis(), String.format("%.0f", result.getRowsPerSecond()));
+        return result;
+    }
+
+    // chunk 번호는 int 로 센다. id 범위가 넓어 chunk 수가 int 를 넘으면 chunkSize 를 키워야 한다.
+    private static int totalChunks(long minId, long maxId, int chunkSize) {
+        if (minId > maxId) {
+            return 0;
+        }
+        try {
+            return Math.toIntExact(Math.addExact(Math.subtractExact(maxId, minId) / chunkSize, 1));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Too many chunks for id range [" + minId + ", " + maxId
+                    + "] with chunk size " + chunkSize + ", use a larger chunk size", e);
+        }
+    }
+
+    public BulkProgress execute(String name, long minId, long maxId, ChunkStatement statement) {
+        return execute(name, minId, maxId, properties.getChunkSize(), properties.getParallelism(), statement, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface ChunkStatement {
+        /**
+         * member_id 가 [fromId, toId] 인 구간을 처리하고 변경된 row 수를 반환한다. 호출 시점에 새 트랜잭션이 열려 있다.
+         */
+        long execute(long fromId, long toId);
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.bulk")
+public class PartitionedBulkProperties {
+
+    /**
+     * 동시에 실행하는 chunk 트랜잭션 수. chunk 마다 커넥션을 하나씩 쓰므로 커넥션 pool 크기보다 작게 잡는다.
+     */
+    private int parallelism = 4;
+
+    /**
+     * chunk 하나가 맡는 id 구간의 크기.
+     */
+    private int chunkSize = 10_000;
+
+    /**
+     * 진행 상황 로그 간격.
+     */
+    private Duration progressLogInterval = Duration.ofSeconds(5);
+}
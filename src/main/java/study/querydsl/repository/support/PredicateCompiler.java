@@ -0,0 +1,336 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Querydsl Predicate 를 DB 에 보내지 않고 이미 메모리에 있는 객체(T)에 적용할 수 있는 java.util.function.Predicate 로 바꾼다.
+ * 식 트리는 compile 할 때 한 번만 해석하고, 이후 객체마다 만들어 둔 람다만 실행한다.
+ *
+ * 경로(member.username 등)를 T 의 값으로 읽는 방법은 path(...) 로 등록한다. 등록되지 않은 경로나 지원하지 않는 연산이 있으면
+ * compile 시점에 UnsupportedOperationException 을 던지므로 호출하는 쪽은 DB 조회로 돌아가면 된다.
+ * null 비교는 SQL 처럼 unknown 으로 취급해서 not(age > 10) 도 age 가 null 인 row 는 통과하지 않는다.
+ */
+public final class PredicateCompiler<T> {
+
+    private static final char LIKE_ESCAPE_CHAR = '!';
+
+    private final Map<Path<?>, Function<T, ?>> paths;
+
+    private PredicateCompiler(Map<Path<?>, Function<T, ?>> paths) {
+        this.paths = Map.copyOf(paths);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public boolean supports(Predicate predicate) {
+        try {
+            compile(predicate);
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    public java.util.function.Predicate<T> compile(Predicate predicate) {
+        return compile(predicate, Map.of());
+    }
+
+    /**
+     * @param bindings Param 으로 만든 식의 값
+     */
+    public java.util.function.Predicate<T> compile(Predicate predicate, Map<ParamExpression<?>, ?> bindings) {
+        if (predicate == null) {
+            return t -> true;
+        }
+        Eval<T> eval = compileExpression(predicate, bindings);
+        return t -> Boolean.TRUE.equals(eval.apply(t));
+    }
+
+    @FunctionalInterface
+    private interface Eval<T> extends Function<T, Object> {
+    }
+
+    private Eval<T> compileExpression(Expression<?> expression, Map<ParamExpression<?>, ?> bindings) {
+        if (expression instanceof BooleanBuilder builder) {
+            Predicate value = builder.getValue();
+            return value == null ? t -> true : compileExpression(value, bindings);
+        }
+        if (expression instanceof Constant<?> constant) {
+            Object value = constant.getConstant();
+            return t -> value;
+        }
+        if (expression instanceof ParamExpression<?> param) {
+            if (!bindings.containsKey(param)) {
+                throw new UnsupportedOperationException("Unbound parameter " + param);
+            }
+            Object value = bindings.get(param);
+            return t -> value;
+        }
+        if (expression instanceof Path<?> path) {
+            Function<T, ?> accessor = paths.get(path);
+            if (accessor == null) {
+                throw new UnsupportedOperationException("Unknown path " + path);
+            }
+            return accessor::apply;
+        }
+        if (expression instanceof Operation<?> operation) {
+            return compileOperation(operation, bindings);
+        }
+        throw new UnsupportedOperationException("Unsupported expression " + expression);
+    }
+
+    private Eval<T> compileOperation(Operation<?> operation, Map<ParamExpression<?>, ?> bindings) {
+        Operator operator = operation.getOperator();
+        if (!(operator instanceof Ops ops)) {
+            throw new UnsupportedOperationException("Unsupported operator " + operator);
+        }
+
+        List<Eval<T>> args = new ArrayList<>(operation.getArgs().size());
+        for (Expression<?> arg : operation.getArgs()) {
+            args.add(compileExpression(arg, bindings));
+        }
+        Eval<T> a = args.get(0);
+        Eval<T> b = args.size() > 1 ? args.get(1) : null;
+        Eval<T> c = args.size() > 2 ? args.get(2) : null;
+
+        switch (ops) {
+            case AND:
+                return t -> and(a.apply(t), b.apply(t));
+            case OR:
+                return t -> or(a.apply(t), b.apply(t));
+            case NOT:
+                return t -> {
+                    Object value = a.apply(t);
+                    return value == null ? null : !(Boolean) value;
+                };
+            case EQ:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> equal(x, y));
+            case NE:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> !equal(x, y));
+            case GT:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> compare(x, y) > 0);
+            case GOE:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> compare(x, y) >= 0);
+            case LT:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> compare(x, y) < 0);
+            case LOE:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> compare(x, y) <= 0);
+            case BETWEEN:
+                return t -> {
+                    Object value = a.apply(t);
+                    Object from = b.apply(t);
+                    Object to = c.apply(t);
+                    if (value == null || from == null || to == null) {
+                        return null;
+                    }
+                    return compare(value, from) >= 0 && compare(value, to) <= 0;
+                };
+            case IN:
+                return t -> in(a.apply(t), b.apply(t));
+            case NOT_IN:
+                return t -> {
+                    Boolean in = in(a.apply(t), b.apply(t));
+                    return in == null ? null : !in;
+                };
+            case IS_NULL:
+                return t -> a.apply(t) == null;
+            case IS_NOT_NULL:
+                return t -> a.apply(t) != null;
+            case EQ_IGNORE_CASE:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> x.toString().equalsIgnoreCase(y.toString()));
+            case STARTS_WITH:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> x.toString().startsWith(y.toString()));
+            case STARTS_WITH_IC:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> lower(x).startsWith(lower(y)));
+            case ENDS_WITH:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> x.toString().endsWith(y.toString()));
+            case ENDS_WITH_IC:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> lower(x).endsWith(lower(y)));
+            case STRING_CONTAINS:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> x.toString().contains(y.toString()));
+            case STRING_CONTAINS_IC:
+                return t -> nullSafe(a.apply(t), b.apply(t), (x, y) -> lower(x).contains(lower(y)));
+            // JPQLTemplates 는 escape 를 지정하지 않은 like 도 "like ? escape '!'" 로 내보내므로 같은 escape 문자를 쓴다.
+            case LIKE:
+                return like(operation, a, b, LIKE_ESCAPE_CHAR, false);
+            case LIKE_IC:
+                return like(operation, a, b, LIKE_ESCAPE_CHAR, true);
+            case LIKE_ESCAPE:
+                return like(operation, a, b, escapeChar(operation.getArg(2)), false);
+            case LIKE_ESCAPE_IC:
+                return like(operation, a, b, escapeChar(operation.getArg(2)), true);
+            case LOWER:
+                return t -> {
+                    Object value = a.apply(t);
+                    return value == null ? null : lower(value);
+                };
+            case UPPER:
+                return t -> {
+                    Object value = a.apply(t);
+                    return value == null ? null : value.toString().toUpperCase(Locale.ROOT);
+                };
+            case STRING_LENGTH:
+                return t -> {
+                    Object value = a.apply(t);
+                    return value == null ? null : value.toString().length();
+                };
+            default:
+                throw new UnsupportedOperationException("Unsupported operator " + ops);
+        }
+    }
+
+    private Eval<T> like(Operation<?> operation, Eval<T> value, Eval<T> pattern, char escape, boolean ignoreCase) {
+        int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+        // 패턴이 상수이면 정규식을 미리 만들어 둔다.
+        if (operation.getArg(1) instanceof Constant<?> constant) {
+            Pattern regex = Pattern.compile(likeToRegex(constant.getConstant().toString(), escape), flags | Pattern.DOTALL);
+            return t -> {
+                Object v = value.apply(t);
+                return v == null ? null : regex.matcher(v.toString()).matches();
+            };
+        }
+        return t -> nullSafe(value.apply(t), pattern.apply(t), (x, y) ->
+                Pattern.compile(likeToRegex(y.toString(), escape), flags | Pattern.DOTALL).matcher(x.toString()).matches());
+    }
+
+    private static char escapeChar(Expression<?> expression) {
+        if (expression instanceof Constant<?> constant) {
+            return constant.getConstant().toString().charAt(0);
+        }
+        throw new UnsupportedOperationException("Escape character must be a constant");
+    }
+
+    static String likeToRegex(String like, char escape) {
+        StringBuilder regex = new StringBuilder(like.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char ch = like.charAt(i);
+            if (ch == escape && i + 1 < like.length()) {
+                literal.append(like.charAt(++i));
+            } else if (ch == '%' || ch == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(ch == '%' ? ".*" : ".");
+            } else {
+                literal.append(ch);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    // SQL 3치 논리: false 가 하나라도 있으면 false, 아니면 unknown 이 있으면 unknown
+    private static Boolean and(Object left, Object right) {
+        if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+            return false;
+        }
+        if (left == null || right == null) {
+            return null;
+        }
+        return true;
+    }
+
+    private static Boolean or(Object left, Object right) {
+        if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+            return true;
+        }
+        if (left == null || right == null) {
+            return null;
+        }
+        return false;
+    }
+
+    private static Boolean nullSafe(Object left, Object right, BiPredicate<Object, Object> test) {
+        if (left == null || right == null) {
+            return null;
+        }
+        return test.test(left, right);
+    }
+
+    private static Boolean in(Object value, Object values) {
+        if (value == null) {
+            return null;
+        }
+        Collection<?> candidates = values instanceof Collection<?> collection ? collection : List.of(values);
+        boolean hasNull = false;
+        for (Object candidate : candidates) {
+            if (candidate == null) {
+                hasNull = true;
+            } else if (equal(value, candidate)) {
+                return true;
+            }
+        }
+        return hasNull ? null : false;
+    }
+
+    private static boolean equal(Object left, Object right) {
+        if (left instanceof Number x && right instanceof Number y) {
+            return compare(x, y) == 0;
+        }
+        return Objects.equals(left, right);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        if (left instanceof Number x && right instanceof Number y) {
+            if (isIntegral(x) && isIntegral(y)) {
+                return Long.compare(x.longValue(), y.longValue());
+            }
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private static String lower(Object value) {
+        return value.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Builder<T> {
+
+        private final Map<Path<?>, Function<T, ?>> paths = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * path 를 T 에서 읽는 방법. 같은 값을 가리키는 path 가 여러 개면(member.team.name, team.name) 각각 등록한다.
+         */
+        public <V> Builder<T> path(Path<V> path, Function<T, ? extends V> accessor) {
+            paths.put(path, accessor);
+            return this;
+        }
+
+        public PredicateCompiler<T> build() {
+            return new PredicateCompiler<>(paths);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 논리적인 쿼리 이름(예: member.search) 단위로 실행 시간, 반환 row 수를 기록한다.
+ * p6spy 는 SQL 만 보여주므로 어떤 repository 메서드의 content/count 쿼리인지는 여기서 구분한다.
+ * <ul>
+ *     <li>querydsl.query (timer, tags: name, kind=content|count, outcome=success|error)</li>
+ *     <li>querydsl.query.rows (summary, tags: name)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    public static final String CONTENT = "content";
+    public static final String COUNT = "count";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final QueryMetricsProperties properties;
+
+    public QueryMetrics(MeterRegistry registry, QueryMetricsProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    public <T> List<T> fetch(String name, JPAQuery<T> query) {
+        return record(name, CONTENT, query::fetch, List::size, () -> describe(query));
+    }
+
+    public long fetchCount(String name, JPAQuery<?> query) {
+        return count(name, query::fetchCount, () -> describe(query));
+    }
+
+    public long count(String name, LongSupplier counter, Supplier<String> description) {
+        return record(name, COUNT, counter::getAsLong, null, description);
+    }
+
+    /**
+     * 실패한 쿼리도 outcome=error 로 같은 timer 에 기록하고, 오래 걸렸으면 slow query 로그를 남긴 뒤 예외를 그대로 던진다.
+     *
+     * @param rows        결과에서 row 수를 구하는 함수. count 쿼리처럼 의미가 없으면 null
+     * @param description slow query 일 때만 호출된다.
+     */
+    public <R> R record(String name, String kind, Supplier<R> execution, ToIntFunction<R> rows, Supplier<String> description) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        int rowCount = -1;
+        try {
+            R result = execution.get();
+            outcome = SUCCESS;
+            if (rows != null) {
+                rowCount = rows.applyAsInt(result);
+                DistributionSummary.builder("querydsl.query.rows")
+                        .tag("name", name)
+                        .baseUnit("rows")
+                        .register(registry)
+                        .record(rowCount);
+            }
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+
+            Timer.builder("querydsl.query")
+                    .tag("name", name)
+                    .tag("kind", kind)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+
+            if (elapsed >= properties.getSlowQueryThreshold().toNanos()) {
+                log.warn("slow query [{}:{}] {}ms outcome={} rows={} {}", name, kind,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), outcome, rowCount, description == null ? "" : description.get());
+            }
+        }
+    }
+
+    public void bindCache(String name, JpqlQueryCache<?> cache) {
+        FunctionCounter.builder("querydsl.jpql.cache", cache, JpqlQueryCache::getHitCount)
+                .tag("name", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("querydsl.jpql.cache", cache, JpqlQueryCache::getMissCount)
+                .tag("name", name)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    public static String describe(JPAQuery<?> query) {
+        JPQLSerializer serializer = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return "jpql=[" + serializer.toString().replace('\n', ' ') + "] params=" + serializer.getConstants();
+    }
+
+    public static String describe(String jpql, Map<ParamExpression<?>, Object> params) {
+        String bound = params.entrySet().stream()
+                .map(e -> e.getKey().getName() + "=" + e.getValue())
+                .collect(Collectors.joining(", ", "{", "}"));
+        return "jpql=[" + jpql.replace('\n', ' ') + "] params=" + bound;
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.metrics")
+public class QueryMetricsProperties {
+
+    /**
+     * 이 시간보다 오래 걸린 쿼리는 JPQL 과 바인딩 파라미터를 WARN 으로 남긴다.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+}
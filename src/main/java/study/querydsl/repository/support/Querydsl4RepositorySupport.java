@@ -2,6 +2,7 @@ package study.querydsl.repository.support;
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
@@ -17,8 +18,15 @@ import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
+import study.querydsl.dto.CursorPage;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 @Repository
@@ -27,6 +35,9 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelCountExecutor countExecutor;
+    private QueryMetrics queryMetrics;
+    private AsyncQueryExecutor asyncQueryExecutor;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -44,11 +55,28 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired(required = false)
+    public void setCountExecutor(ParallelCountExecutor countExecutor) {
+        this.countExecutor = countExecutor;
+    }
+
+    @Autowired
+    public void setQueryMetrics(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Autowired
+    public void setAsyncQueryExecutor(AsyncQueryExecutor asyncQueryExecutor) {
+        this.asyncQueryExecutor = asyncQueryExecutor;
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(queryMetrics, "QueryMetrics must not be null!");
+        Assert.notNull(asyncQueryExecutor, "AsyncQueryExecutor must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -63,6 +91,10 @@ public abstract class Querydsl4RepositorySupport {
         return entityManager;
     }
 
+    protected QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
     protected <T> JPAQuery<T> select(Expression<T> expr) {
         return getQueryFactory().select(expr);
     }
@@ -72,15 +104,133 @@ public abstract class Querydsl4RepositorySupport {
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        if (isParallelCount()) {
+            return applyPaginationInParallel(pageable, contentQuery, contentQuery);
+        }
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        JPAQuery<?> countQuery = countQueryOf(jpaQuery);
+        List<T> content = queryMetrics.fetch(metricName(), (JPAQuery<T>) getQuerydsl().applyPagination(pageable, jpaQuery));
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.fetchCount(metricName(), countQuery));
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+        if (isParallelCount()) {
+            return applyPaginationInParallel(pageable, contentQuery, countQuery);
+        }
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+        List<T> content = queryMetrics.fetch(metricName(), (JPAQuery<T>) getQuerydsl().applyPagination(pageable, jpaContentQuery));
+        JPAQuery<?> countResult = countQueryOf(countQuery.apply(getQueryFactory()));
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.fetchCount(metricName(), countResult));
+    }
+
+    /**
+     * 컬렉션 fetch join 이 있는 쿼리는 DB 에서 limit 을 걸 수 없어서 Hibernate 가 전체를 읽고 메모리에서 페이징한다.
+     * 그래서 두 번에 나눠서 조회한다.
+     * <ol>
+     *     <li>idQuery 로 id 만 페이징 (offset/limit, 정렬은 pageable 기준)</li>
+     *     <li>fetchQuery 로 해당 id 들의 전체 그래프를 fetch join 해서 조회 (where id in (...))</li>
+     * </ol>
+     * 결과는 1단계 id 순서대로 돌려준다. count 는 idQuery 에서 만든다.
+     */
+    protected <T, ID> Page<T> applyPaginationByIds(Pageable pageable,
+                                                   Function<JPAQueryFactory, JPAQuery<ID>> idQuery,
+                                                   BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> fetchQuery,
+                                                   Function<T, ID> idExtractor) {
+        JPAQuery<ID> jpaIdQuery = idQuery.apply(getQueryFactory());
+        JPAQuery<?> countQuery = countQueryOf(jpaIdQuery);
+        List<ID> ids = queryMetrics.fetch(metricName(), (JPAQuery<ID>) getQuerydsl().applyPagination(pageable, jpaIdQuery));
+        List<T> content = fetchByIds(ids, fetchQuery, idExtractor);
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.fetchCount(metricName(), countQuery));
+    }
+
+    /**
+     * {@link #applyPaginationByIds} 의 keyset 버전. 1단계 id 조회를 offset 대신 cursor 로 한다.
+     */
+    protected <T> CursorPage<T> applyKeysetPaginationByIds(String cursor, int size, NumberPath<Long> idPath,
+                                                           Function<JPAQueryFactory, JPAQuery<Long>> idQuery,
+                                                           BiFunction<JPAQueryFactory, List<Long>, JPAQuery<T>> fetchQuery,
+                                                           Function<T, Long> idExtractor) {
+        JPAQuery<Long> jpaIdQuery = idQuery.apply(getQueryFactory());
+        CursorPage<Long> idPage = queryMetrics.record(metricName(), QueryMetrics.CONTENT,
+                () -> KeysetPagination.fetch(jpaIdQuery, idPath, Function.identity(), cursor, size),
+                page -> page.getContent().size(), () -> QueryMetrics.describe(jpaIdQuery));
+        List<T> content = fetchByIds(idPage.getContent(), fetchQuery, idExtractor);
+        return new CursorPage<>(content, size, idPage.getNextCursor());
+    }
+
+    private <T, ID> List<T> fetchByIds(List<ID> ids, BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> fetchQuery,
+                                       Function<T, ID> idExtractor) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<T> rows = queryMetrics.fetch(metricName(), fetchQuery.apply(getQueryFactory(), ids));
+
+        // in 절은 순서를 보장하지 않으므로 1단계 id 순서로 다시 정렬한다. (fetch join 으로 인한 중복도 여기서 제거된다)
+        Map<ID, T> byId = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            byId.putIfAbsent(idExtractor.apply(row), row);
+        }
+        List<T> content = new ArrayList<>(ids.size());
+        for (ID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                content.add(row);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * content 쿼리에서 order by, projection, 조건에 쓰이지 않는 to-one left join 을 제거한 count 쿼리를 만든다.
+     * 메서드마다 count 쿼리를 따로 작성하지 않아도 된다.
+     */
+    protected JPAQuery<?> countQueryOf(JPAQuery<?> contentQuery) {
+        return CountQueries.derive(getEntityManager(), contentQuery);
+    }
+
+    // 아래 *Async 메서드는 AsyncQueryExecutor 의 읽기 전용 트랜잭션 안에서 동기 버전을 그대로 실행한다.
+    // 조회한 엔티티는 트랜잭션이 끝난 뒤 반환되므로 LAZY 연관관계는 미리 fetch 해둬야 한다.
+    protected <T> CompletableFuture<Page<T>> applyPaginationAsync(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return asyncQueryExecutor.supply(() -> applyPagination(pageable, contentQuery));
+    }
+
+    protected <T> CompletableFuture<Page<T>> applyPaginationAsync(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+        return asyncQueryExecutor.supply(() -> applyPagination(pageable, contentQuery, countQuery));
+    }
+
+    protected <T> CompletableFuture<CursorPage<T>> applyKeysetPaginationAsync(String cursor, int size, NumberPath<Long> idPath, Function<T, Long> idExtractor,
+                                                                              Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        return asyncQueryExecutor.supply(() -> applyKeysetPagination(cursor, size, idPath, idExtractor, contentQuery));
+    }
+
+    // count 쿼리를 먼저 다른 커넥션에 던져두고 content 를 조회하므로 응답 시간이 (content + count) 가 아니라 max(content, count) 가 된다.
+    private <T> Page<T> applyPaginationInParallel(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+        ParallelCountExecutor.CountFuture total = countExecutor.submit(countQuery);
+        try {
+            JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+            List<T> content = queryMetrics.fetch(metricName(), (JPAQuery<T>) getQuerydsl().applyPagination(pageable, jpaContentQuery));
+            // 병렬 모드에서는 content 조회 이후 count 를 기다린 시간이 기록된다.
+            return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.count(metricName(), total, null));
+        } finally {
+            total.cancel();
+        }
+    }
+
+    // querydsl.query 의 name tag. 하위 repository 이름으로 구분한다.
+    protected String metricName() {
+        return getClass().getSimpleName();
+    }
+
+    private boolean isParallelCount() {
+        return countExecutor != null && countExecutor.isEnabled();
+    }
+
+    protected <T> CursorPage<T> applyKeysetPagination(String cursor, int size, NumberPath<Long> idPath, Function<T, Long> idExtractor,
+                                                      Function<JPAQueryFactory, JPAQuery<T>> contentQuery) {
+        JPAQuery<T> jpaQuery = contentQuery.apply(getQueryFactory());
+        return queryMetrics.record(metricName(), QueryMetrics.CONTENT,
+                () -> KeysetPagination.fetch(jpaQuery, idPath, idExtractor, cursor, size),
+                page -> page.getContent().size(), () -> QueryMetrics.describe(jpaQuery));
     }
-}
\ No newline at end of file
+}
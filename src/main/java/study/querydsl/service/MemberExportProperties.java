@@ -0,0 +1,17 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.export")
+public class MemberExportProperties {
+
+    /**
+     * /v1/members/export 의 비동기 요청 timeout. 결과 크기에 비례해서 오래 걸릴 수 있으므로 이 endpoint 에만 길게 준다.
+     */
+    private Duration timeout = Duration.ofMinutes(10);
+}
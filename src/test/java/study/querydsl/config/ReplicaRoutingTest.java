@@ -0,0 +1,151 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.ParallelCountExecutor;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * primary 와 replica 두 개를 각각 다른 in-memory H2 로 띄운다.
+ * replica 에만 있는 row(replicaOnly)가 보이는지로 어느 DB 에서 읽었는지 확인한다. (replica1 에 1건, replica2 에 2건)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingPrimary;DB_CLOSE_DELAY=-1",
+        "querydsl.replica.enabled=true",
+        "querydsl.replica.max-lag=5s",
+        "querydsl.replica.check-interval=100ms",
+        "querydsl.replica.replicas[0].name=replica1",
+        "querydsl.replica.replicas[0].url=jdbc:h2:mem:routingReplica1;DB_CLOSE_DELAY=-1",
+        "querydsl.replica.replicas[0].username=sa",
+        "querydsl.replica.replicas[0].password=",
+        "querydsl.replica.replicas[1].name=replica2",
+        "querydsl.replica.replicas[1].url=jdbc:h2:mem:routingReplica2;DB_CLOSE_DELAY=-1",
+        "querydsl.replica.replicas[1].username=sa",
+        "querydsl.replica.replicas[1].password="
+})
+class ReplicaRoutingTest {
+
+    private static final String REPLICA_ONLY = "replicaOnly";
+
+    @Autowired
+    ReplicaDataSources dataSources;
+
+    @Autowired
+    ReplicaHealthChecker healthChecker;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ParallelCountExecutor countExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    LocalReplicaSync replicaSync;
+
+    @BeforeEach
+    void before() throws Exception {
+        // 자동 복제 대신 테스트에서 한 번만 복사한다.
+        replicaSync = new LocalReplicaSync(dataSources.getPrimary(), dataSources.getReplicas(), healthChecker, Duration.ofHours(1));
+        replicaSync.sync();
+        insertReplicaOnly("replica1", 1);
+        insertReplicaOnly("replica2", 2);
+        awaitHealthy(replicas -> replicas.containsAll(List.of("replica1", "replica2")));
+    }
+
+    @AfterEach
+    void after() {
+        replicaSync.close();
+    }
+
+    @Test
+    void readOnlyRepositoryCallGoesToReplica() throws Exception {
+        // when: SimpleJpaRepository 의 조회 메서드는 읽기 전용 트랜잭션이다.
+        List<Member> result = memberRepository.findByUsername(REPLICA_ONLY);
+
+        // then
+        assertThat(result).isNotEmpty();
+    }
+
+    @Test
+    void callInsideWriteTransactionStaysOnPrimary() throws Exception {
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        List<Member> result = tx.execute(status -> memberRepository.findByUsername(REPLICA_ONLY));
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() throws Exception {
+        // given: replica 의 heartbeat 가 max-lag 보다 오래됐다.
+        Timestamp old = Timestamp.from(Instant.now().minus(Duration.ofMinutes(1)));
+        for (String name : List.of("replica1", "replica2")) {
+            new JdbcTemplate(dataSources.getReplicas().get(name))
+                    .update("update replica_heartbeat set beat_at = ? where id = 1", old);
+        }
+        awaitHealthy(List::isEmpty);
+
+        // when
+        List<Member> result = memberRepository.findByUsername(REPLICA_ONLY);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void parallelCountUsesSameReplicaAsContent() throws Exception {
+        // given
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        for (int i = 0; i < 4; i++) {
+            // when
+            long[] contentAndCount = readOnlyTx.execute(status -> {
+                ParallelCountExecutor.CountFuture total = countExecutor.submit(
+                        queryFactory -> queryFactory.selectFrom(member).where(member.username.eq(REPLICA_ONLY)));
+                int content = memberRepository.findByUsername(REPLICA_ONLY).size();
+                return new long[]{content, total.getAsLong()};
+            });
+
+            // then: replica 마다 건수가 다르므로 같은 replica 에서 읽었을 때만 둘이 같다.
+            assertThat(contentAndCount[0]).isPositive();
+            assertThat(contentAndCount[1]).isEqualTo(contentAndCount[0]);
+        }
+    }
+
+    private void insertReplicaOnly(String replica, int rows) {
+        JdbcTemplate template = new JdbcTemplate(dataSources.getReplicas().get(replica));
+        for (int i = 0; i < rows; i++) {
+            template.update("insert into member (member_id, username, age) values (?, ?, ?)", 900_000_000L + i, REPLICA_ONLY, 0);
+        }
+    }
+
+    private void awaitHealthy(Predicate<List<String>> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.test(healthChecker.healthyReplicas())) {
+            assertThat(System.nanoTime() - deadline).as("replica health: %s", healthChecker.healthyReplicas()).isNegative();
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsTest {
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualExecutorRunsTask() throws Exception {
+        // given
+        assertThat(VirtualThreads.isSupported()).isTrue();
+        ExecutorService executor = VirtualThreads.newExecutor(true, 1, "vt-test-");
+
+        try {
+            // when
+            Future<Thread> thread = executor.submit(Thread::currentThread);
+
+            // then
+            Thread worker = thread.get(5, TimeUnit.SECONDS);
+            assertThat(worker.getName()).startsWith("vt-test-");
+            assertThat((boolean) Thread.class.getMethod("isVirtual").invoke(worker)).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void platformExecutorRunsTask() throws Exception {
+        // given
+        ExecutorService executor = VirtualThreads.newExecutor(false, 1, "platform-test-");
+
+        try {
+            // when
+            Thread worker = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // then
+            assertThat(worker.getName()).startsWith("platform-test-");
+            assertThat(worker.isDaemon()).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void after() {
+        requiresNew().executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'export%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'exportTeam%'").executeUpdate();
+        });
+    }
+
+    @Test
+    void cursorPageSizeMustBePositive() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidCursor() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // export 는 별도 thread 의 읽기 전용 transaction 에서 돌기 때문에 테스트 transaction 밖에서 commit 한 데이터로 확인한다.
+    @Test
+    void exportNdjson() throws Exception {
+        saveExportMembers();
+
+        MvcResult result = mockMvc.perform(get("/v1/members/export").param("username", "export1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String ndjson = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=members.ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // then: 한 줄에 json 하나
+        assertThat(ndjson).endsWith("\n");
+        assertThat(ndjson.split("\n")).singleElement().asString()
+                .matches("\\{\"memberId\":\\d+,\"username\":\"export1\",\"age\":1,\"teamId\":\\d+,\"teamName\":\"exportTeamA\"}");
+    }
+
+    @Test
+    void exportCsv() throws Exception {
+        saveExportMembers();
+
+        MvcResult result = mockMvc.perform(get("/v1/members/export")
+                        .param("format", "csv")
+                        .param("teamName", "exportTeamA")
+                        .param("ageGoe", "1")
+                        .param("ageLoe", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        // then: export1, export3 (exportTeamA 는 홀수 member)
+        String[] lines = csv.split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("memberId,username,age,teamId,teamName");
+        assertThat(lines).anyMatch(line -> line.matches("\\d+,export1,1,\\d+,exportTeamA"));
+        assertThat(lines).anyMatch(line -> line.matches("\\d+,export3,3,\\d+,exportTeamA"));
+    }
+
+    @Test
+    void unsupportedExportFormat() throws Exception {
+        mockMvc.perform(get("/v1/members/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void saveExportMembers() {
+        requiresNew().executeWithoutResult(status -> {
+            Team teamA = new Team("exportTeamA");
+            Team teamB = new Team("exportTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 1; i <= 4; i++) {
+                em.persist(new Member("export" + i, i, i % 2 == 1 ? teamA : teamB));
+            }
+        });
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return tx;
+    }
+}
@@ -24,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DirectProjections;
 
 import java.util.List;
 
@@ -798,6 +799,40 @@ public class QuerydslBasicTest {
 
     }
 
+    // Projections.* 와 같은 방식이지만 row 마다 reflection 을 쓰지 않는다. (DirectProjections)
+    @Test
+    void findDtoByDirectProjections() throws Exception {
+        // given
+        List<MemberDto> bySetter = queryFactory
+                .select(DirectProjections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .where(member.username.eq("member1"))
+                .fetch();
+
+        List<UserDto> byField = queryFactory
+                .select(DirectProjections.fields(UserDto.class,
+                        member.username.as("name"),
+                        member.age))
+                .from(member)
+                .where(member.username.eq("member1"))
+                .fetch();
+
+        List<MemberDto> byConstructor = queryFactory
+                .select(DirectProjections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .where(member.username.eq("member1"))
+                .fetch();
+
+        // then
+        assertThat(bySetter).extracting("username", "age").contains(tuple("member1", 10));
+        assertThat(byField).extracting("name", "age").contains(tuple("member1", 10));
+        assertThat(byConstructor).usingRecursiveFieldByFieldElementComparator().isEqualTo(bySetter);
+    }
+
     // 프로퍼티나, 필드 접근 생성 방식에서 이름이 다를 때 해결 방안
     // ExpressionUtils.as(source, alias): 필드나 서브 쿼리에 별칭 적용
     // username.as("memberName"): 필드에 별칭 사용
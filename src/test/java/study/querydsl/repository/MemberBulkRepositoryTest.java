@@ -0,0 +1,128 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.TableWriteInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    @Autowired
+    TableWriteInspector tableWriteInspector;
+
+    Team teamA;
+    Member member1;
+    Member member2;
+    Member member3;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("teamA");
+        em.persist(teamA);
+
+        member1 = new Member("member1", 10, teamA);
+        member2 = new Member("member2", 20, teamA);
+        member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+    }
+
+    @Test
+    void updateDetachesOnlyAffectedMembers() throws Exception {
+        // when
+        long count = memberBulkRepository.update(member.age.lt(28),
+                update -> update.set(member.username, "비회원"), StaleMemberPolicy.DETACH);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(em.contains(member3)).isTrue();
+        assertThat(em.contains(teamA)).isTrue();
+        assertThat(em.find(Member.class, member1.getId()).getUsername()).isEqualTo("비회원");
+    }
+
+    @Test
+    void updateRefreshesAffectedMembers() throws Exception {
+        // when
+        memberBulkRepository.update(member.age.goe(20),
+                update -> update.set(member.age, member.age.add(1)), StaleMemberPolicy.REFRESH);
+
+        // then
+        assertThat(em.contains(member2)).isTrue();
+        assertThat(member1.getAge()).isEqualTo(10);
+        assertThat(member2.getAge()).isEqualTo(21);
+        assertThat(member3.getAge()).isEqualTo(31);
+    }
+
+    @Test
+    void updateFlushesPendingChangesFirst() throws Exception {
+        // given
+        member3.setAge(5);
+
+        // when
+        long count = memberBulkRepository.update(member.age.lt(28),
+                update -> update.set(member.username, "비회원"), StaleMemberPolicy.DETACH);
+
+        // then
+        assertThat(count).isEqualTo(3);
+    }
+
+    @Test
+    void deleteRemovesMembersFromTeam() throws Exception {
+        // when
+        long count = memberBulkRepository.delete(member.age.gt(18));
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(teamA.getMembers()).containsExactly(member1);
+    }
+
+    // sequence 는 allocationSize(100) 건마다 한 번, insert 는 hibernate.jdbc.batch_size(100) 건마다 한 번 준비된다.
+    @Test
+    void insertAllUsesPooledSequenceAndJdbcBatch() throws Exception {
+        // given
+        int rows = 300;
+
+        // when
+        List<String> statements = tableWriteInspector.capture(() -> memberBulkRepository.insertAll(
+                IntStream.range(0, rows).mapToObj(i -> new Member("bulkInsert" + i, i)).iterator()));
+
+        // then
+        long sequenceCalls = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("member_seq"))
+                .count();
+        long memberInserts = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*insert\\s+into\\s+member\\b.*"))
+                .count();
+        assertThat(sequenceCalls).isBetween(1L, rows / 100 + 1L);
+        assertThat(memberInserts).isEqualTo(rows / 100);
+
+        Long inserted = em.createQuery("select count(m) from Member m where m.username like 'bulkInsert%'", Long.class)
+                .getSingleResult();
+        assertThat(inserted).isEqualTo(rows);
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamAgeStats;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberColumnarRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberColumnarRepository memberColumnarRepository;
+
+    @BeforeEach
+    void before() {
+        Team columnTeamA = new Team("columnTeamA");
+        Team columnTeamB = new Team("columnTeamB");
+        em.persist(columnTeamA);
+        em.persist(columnTeamB);
+
+        em.persist(new Member("columnMember1", 10, columnTeamA));
+        em.persist(new Member("columnMember2", 20, columnTeamA));
+        em.persist(new Member("columnMember3", 30, columnTeamB));
+        em.persist(new Member("columnMember4", 40, columnTeamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void searchColumns() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("columnTeamB");
+        condition.setAgeGoe(35);
+
+        // when
+        MemberColumns result = memberColumnarRepository.searchColumns(condition);
+
+        // then
+        assertThat(result.getSize()).isEqualTo(1);
+        assertThat(result.getUsernames()).containsExactly("columnMember4");
+        assertThat(result.getAges()).containsExactly(40);
+        assertThat(result.getTeamNames()).containsExactly("columnTeamB");
+        assertThat(result.teamNameAt(0)).isEqualTo("columnTeamB");
+    }
+
+    @Test
+    void searchColumnsEncodesTeamNames() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(40);
+
+        // when
+        MemberColumns result = memberColumnarRepository.searchColumns(condition);
+
+        // then
+        int first = Arrays.asList(result.getUsernames()).indexOf("columnMember1");
+        assertThat(result.getTeamNameCodes()[first]).isEqualTo(result.getTeamNameCodes()[first + 1]);
+        assertThat(result.teamNameAt(first + 2)).isEqualTo("columnTeamB");
+    }
+
+    @Test
+    void teamAgeStats() throws Exception {
+        // when
+        TeamAgeStats result = memberColumnarRepository.teamAgeStats();
+
+        // then
+        int teamA = Arrays.asList(result.getTeamNames()).indexOf("columnTeamA");
+        assertThat(result.getCounts()[teamA]).isEqualTo(2);
+        assertThat(result.getSums()[teamA]).isEqualTo(30);
+        assertThat(result.getAverages()[teamA]).isEqualTo(15.0);
+        assertThat(result.getMaxAges()[teamA]).isEqualTo(20);
+        assertThat(result.getMinAges()[teamA]).isEqualTo(10);
+    }
+}
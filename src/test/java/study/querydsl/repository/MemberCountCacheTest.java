@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.CountCache;
+import study.querydsl.repository.cache.CountCacheProperties;
+import study.querydsl.repository.support.CountQueries;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = "querydsl.count-cache.enabled=true")
+@Transactional
+class MemberCountCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    Team countTeam;
+
+    @BeforeEach
+    void before() {
+        countTeam = new Team("countCacheTeam");
+        em.persist(countTeam);
+        em.persist(new Member("countCache1", 10, countTeam));
+        em.persist(new Member("countCache2", 20, countTeam));
+        em.persist(new Member("countCache3", 30, countTeam));
+        em.flush();
+    }
+
+    @Test
+    void invalidatedByEntityWrite() throws Exception {
+        // given
+        MemberSearchCondition condition = condition(null);
+        assertThat(total(condition)).isEqualTo(3);
+
+        // when
+        em.persist(new Member("countCache4", 40, countTeam));
+        em.flush();
+
+        // then
+        assertThat(total(condition)).isEqualTo(4);
+    }
+
+    @Test
+    void invalidatedByBulkWrite() throws Exception {
+        // given
+        MemberSearchCondition condition = condition(20);
+        assertThat(total(condition)).isEqualTo(2);
+
+        // when
+        new JPAQueryFactory(em)
+                .update(member)
+                .set(member.age, member.age.add(10))
+                .where(member.username.startsWith("countCache"))
+                .execute();
+
+        // then
+        assertThat(total(condition)).isEqualTo(3);
+    }
+
+    @Test
+    void estimateThresholdDoesNotChangeContentQuery() throws Exception {
+        // given
+        CountCacheProperties properties = new CountCacheProperties();
+        properties.setEstimateThreshold(2);
+        CountCache<String> cache = new CountCache<>(properties);
+
+        // join 이 없으면 derive 는 content 쿼리를 그대로 돌려준다.
+        JPAQuery<Member> contentQuery = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .where(member.username.startsWith("countCache"))
+                .offset(1)
+                .limit(1);
+        JPAQuery<?> countQuery = CountQueries.derive(em, contentQuery);
+
+        // when
+        long count = cache.load(countQuery);
+
+        // then
+        assertThat(countQuery).isSameAs(contentQuery);
+        assertThat(count).isEqualTo(2);
+        assertThat(contentQuery.getMetadata().getModifiers().getOffset()).isEqualTo(1);
+        assertThat(contentQuery.getMetadata().getModifiers().getLimit()).isEqualTo(1);
+        assertThat(contentQuery.fetch()).hasSize(1);
+    }
+
+    private long total(MemberSearchCondition condition) {
+        // 페이지 크기보다 결과가 많아야 count 를 실행한다.
+        return memberRepository.searchPageComplex(condition, PageRequest.of(0, 1)).getTotalElements();
+    }
+
+    private static MemberSearchCondition condition(Integer ageGoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("countCacheTeam");
+        condition.setAgeGoe(ageGoe);
+        return condition;
+    }
+}
@@ -2,6 +2,7 @@ package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -84,6 +85,59 @@ class MemberJpaRepositoryTest {
          // then
       }
 
+     // /v1/members 는 조건 모양별로 캐시한 JPQL 에 값만 바인딩한다. 모든 모양에서 매번 새로 만드는 쿼리와 결과가 같아야 한다.
+     @Test
+     void searchWithCachedQueryShapes() throws Exception {
+         // given
+         Team teamA = new Team("shapeTeamA");
+         Team teamB = new Team("shapeTeamB");
+         em.persist(teamA);
+         em.persist(teamB);
+         em.persist(new Member("shape1", 10, teamA));
+         em.persist(new Member("shape1", 30, teamB));
+         em.persist(new Member("shape2", 20, teamA));
+         em.persist(new Member("shape3", 40));
+         em.flush();
+
+         for (int shape = 0; shape < MemberJpaRepository.SEARCH_SHAPES; shape++) {
+             MemberSearchCondition condition = MemberSearchConditions.ofShape(shape, "shape1", "shapeTeamA", 15, 35);
+
+             // when
+             List<MemberTeamDto> result = memberJpaRepository.search(condition);
+             List<MemberTeamDto> expected = memberJpaRepository.searchByBuilder(condition);
+
+             // then
+             assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                     .containsExactlyInAnyOrderElementsOf(expected);
+         }
+     }
+
+     @Test
+     void searchMemberWithTeamFetchPlan() throws Exception {
+         // given
+         Team TeamA = new Team("teamA");
+         Team TeamB = new Team("teamB");
+         em.persist(TeamA);
+         em.persist(TeamB);
+
+         em.persist(new Member("member1", 10, TeamA));
+         em.persist(new Member("member2", 20, TeamA));
+         em.persist(new Member("member3", 30, TeamB));
+         em.persist(new Member("member4", 40, TeamB));
+         em.flush();
+         em.clear();
+
+         MemberSearchCondition condition = new MemberSearchCondition();
+         condition.setAgeGoe(20);
+
+         // when
+         List<Member> result = memberJpaRepository.searchMember(condition, MemberFetchPlan.TEAM);
+
+         // then
+         assertThat(result).extracting("username").containsExactlyInAnyOrder("member2", "member3", "member4");
+         assertThat(result).allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+      }
+
 
 
 
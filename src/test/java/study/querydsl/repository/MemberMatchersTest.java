@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberMatchersTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    // 다른 테스트가 커밋한 데이터와 섞이지 않도록 이 테스트의 member 로 한정한다.
+    BooleanExpression mine = member.username.startsWith("matcher");
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("matcherTeamA");
+        Team teamB = new Team("matcherTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("matcher1", 10, teamA));
+        em.persist(new Member("matcher2", 20, teamA));
+        em.persist(new Member("matcher3", 30, teamB));
+        em.persist(new Member("matcher4", 40, teamB));
+        em.persist(new Member("matcher5", 50));
+        em.flush();
+    }
+
+    @Test
+    void sameResultAsDatabase() throws Exception {
+        // given
+        List<Predicate> predicates = List.of(
+                mine.and(member.age.goe(20)).and(member.team.name.eq("matcherTeamA")),
+                mine.and(member.username.like("matcher_").and(member.age.lt(15).or(member.age.gt(45)))),
+                mine.and(member.team.isNull()),
+                mine.and(member.age.between(15, 35).not()),
+                mine.and(member.age.in(10, 40)),
+                mine.and(member.team.name.ne("matcherTeamB")));
+
+        List<Member> members = StreamSupport.stream(memberRepository.findAll(mine).spliterator(), false).toList();
+
+        for (Predicate predicate : predicates) {
+            // when
+            java.util.function.Predicate<Member> matcher = MemberMatchers.MEMBER.compile(predicate);
+
+            // then
+            assertThat(usernames(members.stream().filter(matcher).toList()))
+                    .as(predicate.toString())
+                    .isEqualTo(usernames(memberRepository.findAll(predicate)));
+        }
+    }
+
+    // DB 로 가는 like 는 escape '!' 로 나가므로 메모리 matcher 도 '!' 를 escape 문자로 봐야 같은 결과가 나온다.
+    @Test
+    void likeWithEscape() throws Exception {
+        // given
+        em.persist(new Member("matcher_6", 60));
+        em.persist(new Member("matcher%7", 70));
+        em.persist(new Member("matcher!8", 80));
+        em.persist(new Member("matcher\\9", 90));
+        em.flush();
+
+        List<Predicate> predicates = List.of(
+                member.username.like("matcher!_%"),
+                member.username.like("matcher!%%"),
+                member.username.like("matcher!!%"),
+                member.username.like("matcher\\%"),
+                member.username.likeIgnoreCase("MATCHER!_%"),
+                member.username.like("matcher#_%", '#'));
+
+        List<Member> members = StreamSupport.stream(memberRepository.findAll(mine).spliterator(), false).toList();
+
+        for (Predicate predicate : predicates) {
+            // when
+            java.util.function.Predicate<Member> matcher = MemberMatchers.MEMBER.compile(predicate);
+
+            // then
+            assertThat(usernames(members.stream().filter(matcher).toList()))
+                    .as(predicate.toString())
+                    .isEqualTo(usernames(memberRepository.findAll(mine.and(predicate))));
+        }
+        assertThat(members.stream().filter(MemberMatchers.MEMBER.compile(member.username.like("matcher!_%"))))
+                .extracting(Member::getUsername)
+                .containsExactly("matcher_6");
+    }
+
+    @Test
+    void dtoMatcher() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("matcherTeamB");
+        condition.setAgeGoe(35);
+
+        List<MemberTeamDto> all = memberRepository.search(new MemberSearchCondition());
+
+        // when
+        List<MemberTeamDto> result = all.stream().filter(MemberMatchers.dtoMatcher(condition)).toList();
+
+        // then
+        assertThat(result).extracting("username").containsExactly("matcher4");
+    }
+
+    @Test
+    void unsupportedExpression() throws Exception {
+        assertThatThrownBy(() -> MemberMatchers.MEMBER.compile(member.username.length().eq(member.age.multiply(2))))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static List<String> usernames(Iterable<Member> members) {
+        return StreamSupport.stream(members.spliterator(), false)
+                .map(Member::getUsername)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -105,6 +106,70 @@ class MemberRepositoryTest {
         // then
     }
 
+    @Test
+    void searchPageComplex() throws Exception {
+        // given
+        Team TeamA = new Team("teamA");
+        Team TeamB = new Team("teamB");
+        em.persist(TeamA);
+        em.persist(TeamB);
+
+        Member member1 = new Member("member1", 10, TeamA);
+        Member member2 = new Member("member2", 20, TeamA);
+
+        Member member3 = new Member("member3", 30, TeamB);
+        Member member4 = new Member("member4", 40, TeamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+        teamB.setAgeGoe(20);
+
+        // when
+        Page<MemberTeamDto> allResult = memberRepository.searchPageComplex(all, PageRequest.of(0, 3));
+        Page<MemberTeamDto> teamBResult = memberRepository.searchPageComplex(teamB, PageRequest.of(0, 1));
+
+        // then
+        assertThat(allResult.getTotalElements()).isEqualTo(4);
+        assertThat(teamBResult.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void searchByCursor() throws Exception {
+        // given
+        Team TeamA = new Team("teamA");
+        Team TeamB = new Team("teamB");
+        em.persist(TeamA);
+        em.persist(TeamB);
+
+        Member member1 = new Member("member1", 10, TeamA);
+        Member member2 = new Member("member2", 20, TeamA);
+
+        Member member3 = new Member("member3", 30, TeamB);
+        Member member4 = new Member("member4", 40, TeamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, 3);
+        CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
     @Test
     void querydslPredicateExecutorTest() throws Exception {
 
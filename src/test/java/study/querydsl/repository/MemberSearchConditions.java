@@ -0,0 +1,21 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 테스트용 MemberSearchCondition. shape 의 bit 마다 (username, teamName, ageGoe, ageLoe) 중 하나를 채운다.
+ */
+final class MemberSearchConditions {
+
+    private MemberSearchConditions() {
+    }
+
+    static MemberSearchCondition ofShape(int shape, String username, String teamName, int ageGoe, int ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) condition.setUsername(username);
+        if ((shape & 1 << 1) != 0) condition.setTeamName(teamName);
+        if ((shape & 1 << 2) != 0) condition.setAgeGoe(ageGoe);
+        if ((shape & 1 << 3) != 0) condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.repository.cache.TableWriteInspector;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.index-advisor.enabled=true")
+@Transactional
+class MemberSearchIndexAdvisorTest {
+
+    @Autowired
+    MemberSearchIndexAdvisor advisor;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    TableWriteInspector inspector;
+
+    @Test
+    void unindexedPredicateIsReported() throws Exception {
+        // given: 컬럼에 함수를 씌우면 인덱스를 쓸 수 없다.
+        String sql = "/* unindexed */ select m1_0.member_id from member m1_0 where lower(m1_0.username)=?";
+
+        // when
+        List<String> scans = advisor.tableScans(sql, true);
+
+        // then
+        assertThat(scans).anyMatch(table -> table.equalsIgnoreCase("member"));
+    }
+
+    @Test
+    void indexedPredicateIsSilent() throws Exception {
+        // given
+        String sql = "/* indexed */ select m1_0.member_id from member m1_0 where m1_0.username=?";
+
+        // when
+        List<String> scans = advisor.tableScans(sql, true);
+
+        // then
+        assertThat(scans).isEmpty();
+    }
+
+    @Test
+    void commentedSearchStatementsAreExplained() throws Exception {
+        // given: use_sql_comments 로 주석이 붙은 실제 검색 SQL
+        List<String> statements = inspector.capture(() -> memberJpaRepository.search(
+                MemberSearchConditions.ofShape(1, "__index_advisor__", null, 0, 0)));
+        assertThat(statements).isNotEmpty();
+        assertThat(statements).allMatch(sql -> sql.trim().startsWith("/*"));
+
+        // when, then: username 조건은 idx_member_username 을 탄다.
+        for (String sql : statements) {
+            assertThat(advisor.tableScans(sql, true)).isEmpty();
+        }
+    }
+
+    @Test
+    void nonSelectIsSkipped() throws Exception {
+        assertThat(advisor.tableScans("/* update */ update member set age=? where member_id=?", true)).isEmpty();
+    }
+}
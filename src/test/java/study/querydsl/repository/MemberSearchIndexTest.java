@@ -0,0 +1,168 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.MemberSearchIndex;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// 인덱스는 커밋된 변경만 반영하므로 @Transactional 대신 직접 커밋하고 끝나면 지운다.
+// bulk 변경 후 다시 읽기는 테스트에서 직접 rebuild() 로 한다.
+@SpringBootTest(properties = {
+        "querydsl.search-index.enabled=true",
+        "querydsl.search-index.rebuild-delay=1h"
+})
+class MemberSearchIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSearchIndex searchIndex;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("indexTeamA");
+            Team teamB = new Team("indexTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member("index1", 10, teamA));
+            em.persist(new Member("index2", 20, teamA));
+            em.persist(new Member("index3", 30, teamB));
+            em.persist(new Member("index4", 40));
+        });
+        searchIndex.rebuild();
+    }
+
+    @AfterEach
+    void after() {
+        tx.executeWithoutResult(status -> {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            queryFactory.delete(member).where(member.username.startsWith("index")).execute();
+            queryFactory.delete(team).where(team.name.startsWith("indexTeam")).execute();
+        });
+    }
+
+    @Test
+    void sameResultAsDatabase() throws Exception {
+        // given
+        List<MemberSearchCondition> conditions = List.of(
+                condition("index1", null, null, null),
+                condition(null, "indexTeamA", null, null),
+                condition(null, "indexTeamA", 15, null),
+                condition(null, null, 20, 30),
+                condition(null, null, null, 10),
+                condition("index4", null, 35, 45),
+                condition("nobody", null, null, null)
+        );
+
+        for (MemberSearchCondition condition : conditions) {
+            // when
+            List<MemberTeamDto> fromIndex = searchIndex.search(condition).orElseThrow();
+
+            // then
+            assertThat(usernames(fromIndex)).containsExactlyInAnyOrderElementsOf(
+                    usernames(memberQueryRepository.searchFromDatabase(condition)));
+        }
+    }
+
+    @Test
+    void entityChangesAppliedAfterCommit() throws Exception {
+        // given
+        tx.executeWithoutResult(status -> {
+            Member member1 = findMember("index1");
+            member1.setAge(35);
+            member1.setTeam(findMember("index3").getTeam());
+            em.persist(new Member("index5", 50, member1.getTeam()));
+            em.remove(findMember("index2"));
+        });
+
+        // when
+        List<MemberTeamDto> result = searchIndex.search(condition(null, "indexTeamB", 30, null)).orElseThrow();
+
+        // then
+        assertThat(usernames(result)).containsExactly("index1", "index3", "index5");
+        assertThat(searchIndex.search(condition("index2", null, null, null)).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void rollbackIsNotApplied() throws Exception {
+        // given
+        tx.executeWithoutResult(status -> {
+            findMember("index1").setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        // when
+        List<MemberTeamDto> result = searchIndex.search(condition("index1", null, null, null)).orElseThrow();
+
+        // then
+        assertThat(result).extracting("age").containsExactly(10);
+    }
+
+    @Test
+    void bulkUpdateFallsBackToDatabaseUntilRebuilt() throws Exception {
+        // given
+        tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.username.startsWith("index"))
+                .execute());
+
+        // when
+        Optional<List<MemberTeamDto>> staleResult = searchIndex.search(condition("index1", null, null, null));
+        List<MemberTeamDto> result = memberQueryRepository.search(condition("index1", null, null, null));
+        searchIndex.rebuild();
+
+        // then
+        assertThat(staleResult).isEmpty();
+        assertThat(result).extracting("age").containsExactly(11);
+        assertThat(searchIndex.search(condition("index1", null, null, null)).orElseThrow())
+                .extracting("age").containsExactly(11);
+    }
+
+    private Member findMember(String username) {
+        return new JPAQueryFactory(em).selectFrom(member).where(member.username.eq(username)).fetchOne();
+    }
+
+    private static List<String> usernames(List<MemberTeamDto> result) {
+        return result.stream().map(MemberTeamDto::getUsername).toList();
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamDictionaryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    Team teamA;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("dictTeamA");
+        Team teamB = new Team("dictTeamB");
+        // 이름이 같은 team 이 여러 개여도 join 경로와 같은 결과가 나와야 한다.
+        Team teamB2 = new Team("dictTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamB2);
+
+        em.persist(new Member("dictMember1", 10, teamA));
+        em.persist(new Member("dictMember2", 20, teamA));
+        em.persist(new Member("dictMember3", 30, teamB));
+        em.persist(new Member("dictMember4", 40, teamB2));
+        em.persist(new Member("dictMember5", 50));
+        em.flush();
+    }
+
+    @Test
+    void sameResultAsJoin() throws Exception {
+        List<MemberSearchCondition> conditions = List.of(
+                condition(null, null, 10, 50),
+                condition(null, "dictTeamA", null, null),
+                condition(null, "dictTeamB", null, null),
+                condition("dictMember2", "dictTeamA", null, null),
+                condition("dictMember5", null, null, null),
+                condition(null, "dictTeamB", 35, null),
+                condition(null, "noSuchTeam", null, null));
+
+        for (MemberSearchCondition condition : conditions) {
+            // when
+            List<MemberTeamDto> result = memberQueryRepository.searchWithTeamDictionary(condition);
+            List<MemberTeamDto> expected = memberQueryRepository.searchFromDatabase(condition);
+
+            // then
+            assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void teamRenameInvalidatesDictionary() throws Exception {
+        // given
+        MemberSearchCondition before = condition(null, "dictTeamA", null, null);
+        assertThat(memberQueryRepository.searchWithTeamDictionary(before)).hasSize(2);
+
+        // when
+        teamA.setName("dictTeamRenamed");
+        em.flush();
+
+        // then
+        assertThat(memberQueryRepository.searchWithTeamDictionary(before)).isEmpty();
+        List<MemberTeamDto> renamed = memberQueryRepository.searchWithTeamDictionary(condition(null, "dictTeamRenamed", null, null));
+        assertThat(renamed).extracting("teamName").containsOnly("dictTeamRenamed");
+        assertThat(renamed).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberQueryRepository.searchFromDatabase(condition(null, "dictTeamRenamed", null, null)));
+    }
+
+    private MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Test
+    void searchWithMembers() throws Exception {
+        // given
+        Team TeamA = new Team("teamA");
+        Team TeamB = new Team("teamB");
+        Team TeamC = new Team("teamC");
+        em.persist(TeamA);
+        em.persist(TeamB);
+        em.persist(TeamC);
+
+        em.persist(new Member("member1", 10, TeamA));
+        em.persist(new Member("member2", 20, TeamA));
+        em.persist(new Member("member3", 30, TeamB));
+        em.persist(new Member("member4", 40, TeamC));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<Team> result = teamQueryRepository.searchWithMembers(null, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")));
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("name").containsExactly("teamC", "teamB");
+        assertThat(result.getContent().get(1).getMembers()).extracting("username").containsExactly("member3");
+    }
+
+    @Test
+    void searchWithMembersByCursor() throws Exception {
+        // given
+        Team TeamA = new Team("teamA");
+        Team TeamB = new Team("teamB");
+        em.persist(TeamA);
+        em.persist(TeamB);
+
+        em.persist(new Member("member1", 10, TeamA));
+        em.persist(new Member("member2", 20, TeamA));
+        em.persist(new Member("member3", 30, TeamB));
+        em.flush();
+        em.clear();
+
+        // when
+        CursorPage<Team> first = teamQueryRepository.searchWithMembers(null, null, 1);
+        CursorPage<Team> second = teamQueryRepository.searchWithMembers(null, first.getNextCursor(), 1);
+
+        // then
+        assertThat(first.getContent()).extracting("name").containsExactly("teamA");
+        assertThat(first.getContent().get(0).getMembers()).hasSize(2);
+        assertThat(second.getContent()).extracting("name").containsExactly("teamB");
+        assertThat(second.isHasNext()).isFalse();
+    }
+}
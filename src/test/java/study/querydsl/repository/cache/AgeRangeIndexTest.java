@@ -0,0 +1,103 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgeRangeIndexTest {
+
+    @Test
+    void range() throws Exception {
+        // given
+        AgeRangeIndex index = AgeRangeIndex.build(new int[]{30, 10, 20, 10, 40}, new long[]{1, 2, 3, 4, 5});
+
+        // when
+        long[] result = index.range(10, 30);
+
+        // then
+        assertThat(result).containsExactly(2, 4, 3, 1);
+        assertThat(index.range(Integer.MIN_VALUE, Integer.MAX_VALUE)).hasSize(5);
+        assertThat(index.range(41, 50)).isEmpty();
+        assertThat(index.range(30, 10)).isEmpty();
+    }
+
+    @Test
+    void deltaAndTombstones() throws Exception {
+        // given
+        AgeRangeIndex index = AgeRangeIndex.build(new int[]{10, 20, 30}, new long[]{1, 2, 3});
+
+        // when
+        index.add(4, 25);
+        index.remove(2);
+        index.update(3, 15);
+        index.update(3, 35);
+        index.add(2, 20);
+
+        // then
+        assertThat(sorted(index.range(10, 30))).containsExactly(1, 2, 4);
+        assertThat(index.range(31, 40)).containsExactly(3);
+
+        index.compact();
+        assertThat(index.deltaSize()).isZero();
+        assertThat(index.range(10, 40)).containsExactly(1, 2, 4, 3);
+    }
+
+    @Test
+    void sameResultAsMap() throws Exception {
+        // given
+        Random random = new Random(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        int[] ages = new int[5000];
+        long[] ids = new long[5000];
+        for (int i = 0; i < ages.length; i++) {
+            // 32bit 를 넘는 id 와 넓은 나이 범위(packed long 정렬 경로)도 섞는다.
+            ids[i] = i * 5_000_000_000L;
+            ages[i] = i % 2 == 0 ? random.nextInt(100) : random.nextInt();
+            expected.put(ids[i], ages[i]);
+        }
+        AgeRangeIndex index = AgeRangeIndex.build(ages, ids);
+
+        for (int op = 0; op < 20_000; op++) {
+            long id = random.nextInt(6000) * 5_000_000_000L;
+            int age = random.nextInt(100);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    if (expected.containsKey(id)) {
+                        index.update(id, age);
+                    } else {
+                        index.add(id, age);
+                    }
+                    expected.put(id, age);
+                }
+                case 1 -> {
+                    if (expected.remove(id) != null) {
+                        index.remove(id);
+                    }
+                }
+                default -> {
+                    // when
+                    int from = random.nextInt(110) - 5;
+                    int to = random.nextInt(110) - 5;
+                    long[] result = sorted(index.range(from, to));
+
+                    // then
+                    assertThat(result).containsExactly(expected.entrySet().stream()
+                            .filter(e -> e.getValue() >= from && e.getValue() <= to)
+                            .mapToLong(Map.Entry::getKey)
+                            .sorted()
+                            .toArray());
+                }
+            }
+        }
+    }
+
+    private static long[] sorted(long[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
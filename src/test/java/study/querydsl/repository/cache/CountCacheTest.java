@@ -0,0 +1,117 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    @Test
+    void cachedUntilTtl() throws Exception {
+        // given
+        CountCache<String> cache = new CountCache<>(properties(Duration.ofMillis(100), 10));
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        long first = cache.count("a", () -> loads.incrementAndGet());
+        long second = cache.count("a", () -> loads.incrementAndGet());
+        Thread.sleep(150);
+        long expired = cache.count("a", () -> loads.incrementAndGet());
+
+        // then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(expired).isEqualTo(2);
+    }
+
+    @Test
+    void leastRecentlyUsedEvicted() throws Exception {
+        // given
+        CountCache<String> cache = new CountCache<>(properties(Duration.ofMinutes(1), 2));
+        cache.count("a", () -> 1);
+        cache.count("b", () -> 2);
+        cache.count("a", () -> -1); // a 를 최근에 사용한 것으로 만든다.
+
+        // when
+        cache.count("c", () -> 3);
+
+        // then
+        assertThat(cache.count("a", () -> -1)).isEqualTo(1);
+        assertThat(cache.count("b", () -> 20)).isEqualTo(20);
+    }
+
+    @Test
+    void invalidateAll() throws Exception {
+        // given
+        CountCache<String> cache = new CountCache<>(properties(Duration.ofMinutes(1), 10));
+        cache.count("a", () -> 1);
+
+        // when
+        cache.invalidateAll();
+
+        // then
+        assertThat(cache.count("a", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void countLoadedDuringInvalidationIsNotCached() throws Exception {
+        // given
+        CountCache<String> cache = new CountCache<>(properties(Duration.ofMinutes(1), 10));
+
+        // when: count 를 구하는 도중에 쓰기가 있었다.
+        long loaded = cache.count("a", () -> {
+            cache.invalidateAll();
+            return 1;
+        });
+
+        // then: 쓰기 전 값일 수 있으므로 반환만 하고 캐시에는 넣지 않는다.
+        assertThat(loaded).isEqualTo(1);
+        assertThat(cache.count("a", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void notCachedWithinReplicaLagAfterInvalidation() throws Exception {
+        // given
+        CountCache<String> cache = new CountCache<>(properties(Duration.ofMinutes(1), 10), Duration.ofMillis(200));
+        cache.count("a", () -> 1);
+        assertThat(cache.count("a", () -> -1)).isEqualTo(1);
+
+        // when: 쓰기 직후에는 replica 가 아직 예전 값을 돌려줄 수 있다.
+        cache.invalidateAll();
+        long stale = cache.count("a", () -> 1);
+        long fresh = cache.count("a", () -> 2);
+        Thread.sleep(250);
+        long afterLag = cache.count("a", () -> 3);
+
+        // then: 반환은 하되 max-lag 이 지나기 전까지는 캐시에 넣지 않는다.
+        assertThat(stale).isEqualTo(1);
+        assertThat(fresh).isEqualTo(2);
+        assertThat(afterLag).isEqualTo(3);
+        assertThat(cache.count("a", () -> 4)).isEqualTo(3);
+    }
+
+    @Test
+    void disabled() throws Exception {
+        // given
+        CountCacheProperties properties = properties(Duration.ofMinutes(1), 10);
+        properties.setEnabled(false);
+        CountCache<String> cache = new CountCache<>(properties);
+
+        // when
+        cache.count("a", () -> 1);
+
+        // then
+        assertThat(cache.count("a", () -> 2)).isEqualTo(2);
+    }
+
+    private static CountCacheProperties properties(Duration ttl, int maxSize) {
+        CountCacheProperties properties = new CountCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(ttl);
+        properties.setMaxSize(maxSize);
+        return properties;
+    }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.repository.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// DB 를 읽기 시작할 때마다 변경이 들어오도록 EntityManagerFactory 를 감싸서 인덱스를 직접 만든다.
+@SpringBootTest
+class MemberSearchIndexRebuildTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    MemberSearchIndex searchIndex;
+
+    @AfterEach
+    void after() {
+        if (searchIndex != null) {
+            searchIndex.shutdown();
+        }
+    }
+
+    @Test
+    void entityChangesDuringLoadAreReplayed() throws Exception {
+        // given: 읽을 때마다 DB 에 없는 member 가 하나씩 커밋된다. (읽은 값에는 들어 있지 않다)
+        AtomicInteger loads = new AtomicInteger();
+        searchIndex = new MemberSearchIndex(emfCalling(() -> {
+            int n = loads.incrementAndGet();
+            searchIndex.memberSaved(member(Long.MAX_VALUE - n, "duringLoad" + n, 30 + n));
+        }), properties(), new TableWriteInspector());
+
+        // when
+        searchIndex.rebuild();
+
+        // then: 한 번 읽고 교체되며, 읽는 동안 들어온 변경도 남아 있다.
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search(condition("duringLoad1")).orElseThrow()).extracting("age").containsExactly(31);
+    }
+
+    @Test
+    void bulkChangeDuringLoadReloads() throws Exception {
+        // given: 처음 읽는 동안에만 bulk 변경이 있었다.
+        AtomicInteger loads = new AtomicInteger();
+        searchIndex = new MemberSearchIndex(emfCalling(() -> {
+            if (loads.incrementAndGet() == 1) {
+                searchIndex.markStale();
+            }
+        }), properties(), new TableWriteInspector());
+
+        // when
+        searchIndex.rebuild();
+
+        // then: bulk 변경은 읽은 값에 빠졌을 수 있으므로 한 번 더 읽는다.
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(searchIndex.isReady()).isTrue();
+    }
+
+    private EntityManagerFactory emfCalling(Runnable onLoad) {
+        return (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createEntityManager")) {
+                        onLoad.run();
+                    }
+                    try {
+                        return method.invoke(emf, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static MemberSearchIndexProperties properties() {
+        MemberSearchIndexProperties properties = new MemberSearchIndexProperties();
+        properties.setEnabled(true);
+        // 예약된 다시 읽기가 테스트 도중 끼어들지 않게 한다.
+        properties.setRebuildDelay(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static Member member(Long id, String username, int age) {
+        Member member = new Member(username, age);
+        member.setId(id);
+        return member;
+    }
+
+    private static MemberSearchCondition condition(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+}
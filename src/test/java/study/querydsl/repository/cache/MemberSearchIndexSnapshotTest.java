@@ -0,0 +1,135 @@
+package study.querydsl.repository.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberQueryRepository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 컨텍스트의 인덱스와 섞이지 않도록 인덱스를 직접 만든다. DB 는 그때 들어 있는 member 를 그대로 읽는다.
+@SpringBootTest
+class MemberSearchIndexSnapshotTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @TempDir
+    Path dir;
+
+    MemberSearchIndex searchIndex;
+
+    @AfterEach
+    void after() {
+        if (searchIndex != null) {
+            searchIndex.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotReplacedByDatabase() throws Exception {
+        // given
+        Path file = writeSnapshot();
+        searchIndex = searchIndex(properties(file, 1_000_000));
+
+        // when
+        boolean loaded = searchIndex.loadSnapshot(file);
+        List<MemberTeamDto> fromSnapshot = searchIndex.search(condition("snapshotOnly")).orElseThrow();
+        searchIndex.rebuild();
+
+        // then
+        assertThat(loaded).isTrue();
+        assertThat(fromSnapshot).extracting("age").containsExactly(77);
+        assertThat(searchIndex.search(condition("snapshotOnly")).orElseThrow()).isEmpty();
+        assertThat(usernames(searchIndex.search(condition("member1")).orElseThrow()))
+                .isEqualTo(usernames(memberQueryRepository.searchFromDatabase(condition("member1"))));
+    }
+
+    @Test
+    void snapshotDiscardedWhenDatabaseReloadFails() throws Exception {
+        // given
+        Path file = writeSnapshot();
+        // member 가 없어도 0 > -1 이므로 max-members 를 넘어 다시 읽지 못한다.
+        searchIndex = searchIndex(properties(file, -1));
+        searchIndex.loadSnapshot(file);
+
+        // when
+        searchIndex.rebuild();
+
+        // then
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(searchIndex.search(condition("snapshotOnly"))).isEmpty();
+    }
+
+    @Test
+    void oldSnapshotSkipped() throws Exception {
+        // given
+        Path file = writeSnapshot();
+        setCreatedAt(file, System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+        searchIndex = searchIndex(properties(file, 1_000_000));
+
+        // when
+        boolean loaded = searchIndex.loadSnapshot(file);
+
+        // then
+        assertThat(loaded).isFalse();
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(searchIndex.search(condition("snapshotOnly"))).isEmpty();
+    }
+
+    private Path writeSnapshot() throws Exception {
+        Path file = dir.resolve("members.snapshot");
+        try (MemberSnapshot.Writer writer = MemberSnapshot.writer(file)) {
+            writer.add(Long.MAX_VALUE, "snapshotOnly", 77, null, null);
+            writer.commit();
+        }
+        return file;
+    }
+
+    // header 의 createdAt(16 번째 byte 부터 long) 을 바꾼다.
+    private static void setCreatedAt(Path file, long createdAt) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(createdAt);
+            channel.write(buffer.flip(), 16);
+        }
+    }
+
+    private MemberSearchIndex searchIndex(MemberSearchIndexProperties properties) {
+        return new MemberSearchIndex(emf, properties, new TableWriteInspector());
+    }
+
+    private static MemberSearchIndexProperties properties(Path file, int maxMembers) {
+        MemberSearchIndexProperties properties = new MemberSearchIndexProperties();
+        properties.setEnabled(true);
+        properties.setMaxMembers(maxMembers);
+        properties.getSnapshot().setPath(file);
+        properties.getSnapshot().setMaxAge(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static List<String> usernames(List<MemberTeamDto> result) {
+        return result.stream().map(MemberTeamDto::getUsername).toList();
+    }
+
+    private static MemberSearchCondition condition(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+}
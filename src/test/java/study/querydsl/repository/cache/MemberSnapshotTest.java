@@ -0,0 +1,74 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndLoad() throws Exception {
+        // given
+        Path file = dir.resolve("members.snapshot");
+        try (MemberSnapshot.Writer writer = MemberSnapshot.writer(file)) {
+            writer.add(1L, "member1", 10, 100L, "teamA");
+            writer.add(2L, "멤버2", 20, 100L, "teamA");
+            writer.add(3L, null, 30, null, null);
+            writer.commit();
+        }
+
+        // when
+        MemberSnapshot snapshot = MemberSnapshot.load(file);
+
+        // then
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.createdAt()).isPositive();
+        assertThat(snapshot.toDto(1)).usingRecursiveComparison()
+                .isEqualTo(new MemberTeamDto(2L, "멤버2", 20, 100L, "teamA"));
+        assertThat(snapshot.toDto(2)).usingRecursiveComparison()
+                .isEqualTo(new MemberTeamDto(3L, null, 30, null, null));
+        // 같은 team 이름은 dictionary 에 한 번만 들어가고 같은 String 으로 읽힌다.
+        assertThat(snapshot.teamName(0)).isSameAs(snapshot.teamName(1));
+        assertThat(Files.list(dir)).containsExactly(file);
+    }
+
+    @Test
+    void notCommitted() throws Exception {
+        // given
+        Path file = dir.resolve("members.snapshot");
+
+        // when
+        try (MemberSnapshot.Writer writer = MemberSnapshot.writer(file)) {
+            writer.add(1L, "member1", 10, null, null);
+        }
+
+        // then
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    void corrupted() throws Exception {
+        // given
+        Path file = dir.resolve("members.snapshot");
+        try (MemberSnapshot.Writer writer = MemberSnapshot.writer(file)) {
+            writer.add(1L, "member1", 10, 100L, "teamA");
+            writer.commit();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // when, then
+        assertThatThrownBy(() -> MemberSnapshot.load(file)).isInstanceOf(IOException.class);
+    }
+}
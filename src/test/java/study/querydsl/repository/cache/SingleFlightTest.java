@@ -0,0 +1,141 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        // given
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> true);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return executions.incrementAndGet();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        List<Future<Integer>> others = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            others.add(executor.submit(() -> flight.execute("key", executions::incrementAndGet)));
+        }
+        waitUntil(() -> flight.sharedCount() == 5);
+        release.countDown();
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        for (Future<Integer> other : others) {
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(flight.executedCount()).isEqualTo(1);
+
+        // 끝난 결과는 보관하지 않는다.
+        assertThat(flight.execute("key", executions::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void waitingCallsReceiveSameException() throws Exception {
+        // given
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("db down");
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        Future<Integer> second = executor.submit(() -> flight.execute("key", () -> 1));
+        waitUntil(() -> flight.sharedCount() == 1);
+
+        // when
+        release.countDown();
+
+        // then
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void forgetAllStartsNewExecution() throws Exception {
+        // given
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        flight.forgetAll();
+        Integer second = flight.execute("key", () -> 2);
+        release.countDown();
+
+        // then
+        assertThat(second).isEqualTo(2);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(flight.sharedCount()).isZero();
+    }
+
+    @Test
+    void disabled() throws Exception {
+        // given
+        SingleFlight<String, Integer> flight = new SingleFlight<>(() -> false);
+        AtomicInteger executions = new AtomicInteger();
+
+        // when
+        flight.execute("key", executions::incrementAndGet);
+        flight.execute("key", executions::incrementAndGet);
+
+        // then
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(flight.executedCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.config.ReplicaDataSources;
+import study.querydsl.config.VirtualThreadProperties;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AsyncQueryExecutorTest {
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ObjectProvider<ReplicaDataSources> replicaDataSources;
+
+    AsyncQueryExecutor executor;
+
+    @BeforeEach
+    void before() {
+        AsyncQueryProperties properties = new AsyncQueryProperties();
+        properties.setDbPermits(2);
+        properties.setThreads(4);
+        executor = new AsyncQueryExecutor(properties, new VirtualThreadProperties(), transactionManager, dataSource,
+                replicaDataSources);
+    }
+
+    @AfterEach
+    void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    void noPermitFailsImmediately() throws Exception {
+        // given: permit 2개를 모두 잡고 있는 작업
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> running = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            running.add(executor.supply(() -> await(release)));
+        }
+        assertThat(executor.availablePermits()).isZero();
+
+        // when
+        long start = System.nanoTime();
+        CompletableFuture<String> rejected = executor.supply(() -> "never");
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then: 호출한 thread 는 기다리지 않고 이미 실패한 future 를 받는다.
+        assertThat(waited).isLessThan(50);
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TransientDataAccessResourceException.class);
+
+        release.countDown();
+        for (CompletableFuture<String> future : running) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        }
+        assertThat(executor.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void permitsReleasedAfterSuccessAndFailure() throws Exception {
+        // when
+        CompletableFuture<String> success = executor.supply(() -> "ok");
+        CompletableFuture<String> failure = executor.supply(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // then
+        assertThat(success.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThatThrownBy(() -> failure.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(executor.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void permitHeldWhileRunning() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        CompletableFuture<String> future = executor.supply(() -> {
+            started.countDown();
+            return await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(executor.availablePermits()).isEqualTo(1);
+        release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        assertThat(executor.availablePermits()).isEqualTo(2);
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
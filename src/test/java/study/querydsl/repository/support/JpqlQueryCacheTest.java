@@ -0,0 +1,109 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class JpqlQueryCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    Param<String> usernameParam = new Param<>(String.class, "username");
+
+    @BeforeEach
+    void before() {
+        em.persist(new Member("jpqlCache1", 10));
+        em.persist(new Member("jpqlCache2", 20));
+        em.flush();
+    }
+
+    @Test
+    void compiledOncePerShape() throws Exception {
+        // given
+        JpqlQueryCache<Integer> cache = new JpqlQueryCache<>();
+        AtomicInteger compiled = new AtomicInteger();
+        Supplier<JPAQuery<Member>> template = () -> {
+            compiled.incrementAndGet();
+            return byUsername();
+        };
+
+        // when
+        JpqlQueryCache.CompiledQuery<Member> first = cache.get(1, em, template);
+        JpqlQueryCache.CompiledQuery<Member> second = cache.get(1, em, template);
+        cache.get(2, em, template);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(compiled.get()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void paramsBoundOnEveryFetch() throws Exception {
+        // given
+        JpqlQueryCache<Integer> cache = new JpqlQueryCache<>();
+        JpqlQueryCache.CompiledQuery<Member> query = cache.get(1, em, this::byUsername);
+
+        // when
+        List<Member> first = query.fetch(em, Map.<ParamExpression<?>, Object>of(usernameParam, "jpqlCache1"));
+        List<Member> second = query.fetch(em, Map.<ParamExpression<?>, Object>of(usernameParam, "jpqlCache2"));
+
+        // then
+        assertThat(first).extracting("username").containsExactly("jpqlCache1");
+        assertThat(second).extracting("username").containsExactly("jpqlCache2");
+    }
+
+    @Test
+    void templateConstantsKept() throws Exception {
+        // given: 템플릿에 값으로 들어간 조건(age >= 15)은 직렬화할 때의 값으로 고정된다.
+        JpqlQueryCache<Integer> cache = new JpqlQueryCache<>();
+        JpqlQueryCache.CompiledQuery<Member> query = cache.get(1, em, () -> new JPAQueryFactory(em)
+                .selectFrom(member)
+                .where(member.username.startsWith(usernameParam), member.age.goe(15)));
+
+        // when
+        List<Member> result = query.fetch(em, Map.<ParamExpression<?>, Object>of(usernameParam, "jpqlCache"));
+
+        // then
+        assertThat(result).extracting("username").containsExactly("jpqlCache2");
+    }
+
+    @Test
+    void missingParam() throws Exception {
+        // given
+        JpqlQueryCache<Integer> cache = new JpqlQueryCache<>();
+        JpqlQueryCache.CompiledQuery<Member> query = cache.get(1, em, this::byUsername);
+
+        // when, then
+        assertThatThrownBy(() -> query.fetch(em, Map.of())).isInstanceOf(ParamNotSetException.class);
+    }
+
+    private JPAQuery<Member> byUsername() {
+        return new JPAQueryFactory(em)
+                .selectFrom(member)
+                .where(member.username.eq(usernameParam));
+    }
+}
@@ -0,0 +1,168 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.VirtualThreadProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// count 는 별도 커넥션에서 실행되므로 데이터를 커밋하고 끝나면 지운다.
+@SpringBootTest(properties = "querydsl.pagination.parallel-count=true")
+class ParallelCountExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team countTeam = new Team("parallelCountTeam");
+            em.persist(countTeam);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("parallelCount" + i, 10 + i, countTeam));
+            }
+        });
+    }
+
+    @AfterEach
+    void after() {
+        tx.executeWithoutResult(status -> {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            queryFactory.delete(member).where(member.username.startsWith("parallelCount")).execute();
+            queryFactory.delete(team).where(team.name.eq("parallelCountTeam")).execute();
+        });
+    }
+
+    @Test
+    void parallelCount() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("parallelCountTeam");
+
+        // when
+        Page<Member> result = memberTestRepository.applyPagination(condition, PageRequest.of(0, 2));
+
+        // then
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void countTimeout() throws Exception {
+        // given
+        PaginationProperties properties = new PaginationProperties();
+        properties.setParallelCount(true);
+        properties.setCountThreads(1);
+        properties.setCountTimeout(Duration.ofMillis(100));
+        ParallelCountExecutor executor = new ParallelCountExecutor(emf, properties, new VirtualThreadProperties());
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // when
+            ParallelCountExecutor.CountFuture total = executor.submit(queryFactory -> {
+                await(release);
+                return queryFactory.selectFrom(member);
+            });
+
+            // then
+            long start = System.nanoTime();
+            assertThatThrownBy(total::getAsLong).isInstanceOf(QueryTimeoutException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    // virtual thread executor 는 작업마다 thread 를 만들므로 count-threads 만큼만 동시에 DB 를 쓰는지 확인한다.
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadCountsAreBounded() throws Exception {
+        // given
+        PaginationProperties properties = new PaginationProperties();
+        properties.setParallelCount(true);
+        properties.setCountThreads(1);
+        properties.setCountTimeout(Duration.ofSeconds(2));
+        VirtualThreadProperties virtualThreadProperties = new VirtualThreadProperties();
+        virtualThreadProperties.setEnabled(true);
+        ParallelCountExecutor executor = new ParallelCountExecutor(emf, properties, virtualThreadProperties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try {
+            // when
+            ParallelCountExecutor.CountFuture first = executor.submit(queryFactory -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                await(release);
+                running.decrementAndGet();
+                return queryFactory.selectFrom(member).where(member.username.startsWith("parallelCount"));
+            });
+            ParallelCountExecutor.CountFuture second = executor.submit(queryFactory -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                running.decrementAndGet();
+                return queryFactory.selectFrom(member).where(member.username.startsWith("parallelCount"));
+            });
+            started.await(5, TimeUnit.SECONDS);
+            assertThat(executor.availablePermits()).isZero();
+            release.countDown();
+
+            // then
+            assertThat(first.getAsLong()).isEqualTo(5);
+            assertThat(second.getAsLong()).isEqualTo(5);
+            assertThat(maxRunning.get()).isEqualTo(1);
+            assertThat(executor.availablePermits()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// chunk 는 각자 새 트랜잭션에서 실행되므로 테스트 트랜잭션 없이 실행한다.
+@SpringBootTest
+class PartitionedBulkExecutorTest {
+
+    @Autowired
+    PartitionedBulkExecutor bulkExecutor;
+
+    @Test
+    void chunksRunInParallel() throws Exception {
+        // given: 앞의 두 chunk 는 서로를 기다리므로 동시에 실행되어야만 끝난다.
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Set<Long> fromIds = ConcurrentHashMap.newKeySet();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // when
+        BulkProgress result = bulkExecutor.execute("test.parallel", 1, 100, 10, 4, (fromId, toId) -> {
+            threads.add(Thread.currentThread().getName());
+            fromIds.add(fromId);
+            if (fromId <= 11) {
+                bothStarted.countDown();
+                await(bothStarted);
+            }
+            return toId - fromId + 1;
+        }, null);
+
+        // then
+        assertThat(bothStarted.getCount()).isZero();
+        assertThat(threads.size()).isGreaterThan(1);
+        assertThat(fromIds).containsExactlyInAnyOrder(1L, 11L, 21L, 31L, 41L, 51L, 61L, 71L, 81L, 91L);
+        assertThat(result.getTotalChunks()).isEqualTo(10);
+        assertThat(result.getCompletedChunks()).isEqualTo(10);
+        assertThat(result.getRows()).isEqualTo(100);
+    }
+
+    @Test
+    void progressReportedForEveryChunk() throws Exception {
+        // given
+        List<BulkProgress> progress = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        bulkExecutor.execute("test.progress", 1, 95, 10, 3, (fromId, toId) -> toId - fromId + 1, progress::add);
+
+        // then
+        assertThat(progress).hasSize(10);
+        assertThat(progress).extracting(BulkProgress::getCompletedChunks)
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(progress).allSatisfy(p -> assertThat(p.getTotalChunks()).isEqualTo(10));
+        BulkProgress last = progress.stream().filter(p -> p.getCompletedChunks() == 10).findFirst().orElseThrow();
+        assertThat(last.getPercent()).isEqualTo(100.0);
+    }
+
+    @Test
+    void failingChunkStopsRemainingChunks() throws Exception {
+        // given
+        AtomicInteger executed = new AtomicInteger();
+        List<BulkProgress> progress = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        assertThatThrownBy(() -> bulkExecutor.execute("test.failure", 1, 1000, 10, 2, (fromId, toId) -> {
+            executed.incrementAndGet();
+            if (fromId == 31) {
+                throw new IllegalStateException("chunk failed");
+            }
+            return toId - fromId + 1;
+        }, progress::add))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("chunk failed");
+
+        // then: 실패 후에는 다른 worker 가 이미 가져간 chunk 까지만 실행된다.
+        assertThat(executed.get()).isLessThan(100);
+        assertThat(progress).noneMatch(p -> p.getCompletedChunks() == 100);
+    }
+
+    @Test
+    void tooManyChunks() throws Exception {
+        // given
+        AtomicInteger executed = new AtomicInteger();
+
+        // when, then
+        assertThatThrownBy(() -> bulkExecutor.execute("test.overflow", 0, Long.MAX_VALUE, 1, 2, (fromId, toId) -> {
+            executed.incrementAndGet();
+            return 0;
+        }, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(executed.get()).isZero();
+    }
+
+    @Test
+    void lastChunkEndsAtMaxId() throws Exception {
+        // given
+        Set<Long> toIds = ConcurrentHashMap.newKeySet();
+
+        // when
+        BulkProgress result = bulkExecutor.execute("test.edge", Long.MAX_VALUE - 14, Long.MAX_VALUE, 10, 2,
+                (fromId, toId) -> {
+                    toIds.add(toId);
+                    return toId - fromId + 1;
+                }, null);
+
+        // then
+        assertThat(toIds).containsExactlyInAnyOrder(Long.MAX_VALUE - 5, Long.MAX_VALUE);
+        assertThat(result.getRows()).isEqualTo(15);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(OutputCaptureExtension.class)
+class QueryMetricsTest {
+
+    SimpleMeterRegistry registry;
+    QueryMetricsProperties properties;
+    QueryMetrics queryMetrics;
+
+    @BeforeEach
+    void before() {
+        registry = new SimpleMeterRegistry();
+        properties = new QueryMetricsProperties();
+        queryMetrics = new QueryMetrics(registry, properties);
+    }
+
+    @Test
+    void success() throws Exception {
+        // when
+        List<String> result = queryMetrics.record("member.search", QueryMetrics.CONTENT,
+                () -> List.of("a", "b"), List::size, null);
+
+        // then
+        assertThat(result).containsExactly("a", "b");
+        assertThat(timer("member.search", QueryMetrics.SUCCESS).count()).isEqualTo(1);
+        assertThat(registry.find("querydsl.query").tag("outcome", QueryMetrics.ERROR).timer()).isNull();
+        assertThat(registry.get("querydsl.query.rows").tag("name", "member.search").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void failureIsRecorded() throws Exception {
+        // when
+        assertThatThrownBy(() -> queryMetrics.record("member.search", QueryMetrics.CONTENT,
+                () -> {
+                    throw new IllegalStateException("boom");
+                }, null, null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+
+        // then
+        assertThat(timer("member.search", QueryMetrics.ERROR).count()).isEqualTo(1);
+        assertThat(registry.find("querydsl.query").tag("outcome", QueryMetrics.SUCCESS).timer()).isNull();
+        assertThat(registry.find("querydsl.query.rows").summary()).isNull();
+    }
+
+    @Test
+    void slowFailureIsLogged(CapturedOutput output) throws Exception {
+        // given
+        properties.setSlowQueryThreshold(Duration.ZERO);
+
+        // when
+        assertThatThrownBy(() -> queryMetrics.count("member.count", () -> {
+            throw new IllegalStateException("boom");
+        }, () -> "jpql=[select count(member)]"))
+                .isInstanceOf(IllegalStateException.class);
+
+        // then
+        assertThat(output).contains("slow query [member.count:count]", "outcome=error", "jpql=[select count(member)]");
+        assertThat(timer("member.count", QueryMetrics.ERROR).count()).isEqualTo(1);
+    }
+
+    private Timer timer(String name, String outcome) {
+        return registry.get("querydsl.query")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}